@@ -22,17 +22,28 @@ object Config {
         const val COMMONS_COLLECTIONS_4 = "org.apache.commons:commons-collections4:${Versions.COMMONS_COLLECTIONS_4}"
         // https://mvnrepository.com/artifact/org.apache.commons/commons-lang3
         const val COMMONS_LANG_3 = "org.apache.commons:commons-lang3:${Versions.COMMONS_LANG_3}"
+        // https://mvnrepository.com/artifact/org.apache.commons/commons-math3
+        const val COMMONS_MATH_3 = "org.apache.commons:commons-math3:${Versions.COMMONS_MATH_3}"
 
         const val JAVET = "com.caoccao.javet:javet:${Versions.JAVET}"
         const val JAVET_LINUX_ARM64 = "com.caoccao.javet:javet-linux-arm64:${Versions.JAVET}"
         const val JAVET_MACOS = "com.caoccao.javet:javet-macos:${Versions.JAVET}"
 
+        // https://mvnrepository.com/artifact/org.openjdk.jmh/jmh-core
+        const val JMH_CORE = "org.openjdk.jmh:jmh-core:${Versions.JMH}"
+
+        // https://mvnrepository.com/artifact/org.openjdk.jmh/jmh-generator-annprocess
+        const val JMH_GENERATOR_ANNPROCESS = "org.openjdk.jmh:jmh-generator-annprocess:${Versions.JMH}"
+
         // https://mvnrepository.com/artifact/org.junit.jupiter/junit-jupiter-api
         const val JUNIT_JUPITER_API = "org.junit.jupiter:junit-jupiter-api:${Versions.JUNIT_JUPITER}"
 
         // https://mvnrepository.com/artifact/org.junit.jupiter/junit-jupiter-engine
         const val JUNIT_JUPITER_ENGINE = "org.junit.jupiter:junit-jupiter-engine:${Versions.JUNIT_JUPITER}"
 
+        // https://mvnrepository.com/artifact/org.junit.jupiter/junit-jupiter-params
+        const val JUNIT_JUPITER_PARAMS = "org.junit.jupiter:junit-jupiter-params:${Versions.JUNIT_JUPITER}"
+
         const val SELF4J_API = "org.slf4j:slf4j-api:${Versions.SELF4J}"
         const val SELF4J_LOG4J_12 = "org.slf4j:slf4j-log4j12:${Versions.SELF4J}"
     }
@@ -40,7 +51,10 @@ object Config {
     object Versions {
         const val COMMONS_COLLECTIONS_4 = "4.4"
         const val COMMONS_LANG_3 = "3.12.0"
+        const val COMMONS_MATH_3 = "3.6.1"
         const val JAVET = "3.0.1"
+        const val JAVET_MATRIX = JAVET
+        const val JMH = "1.37"
         const val JUNIT_JUPITER = "5.10.1"
         const val SELF4J = "2.0.7"
     }
@@ -57,6 +71,18 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations {
+    getByName("jmhImplementation") { extendsFrom(configurations.implementation.get()) }
+    getByName("jmhRuntimeOnly") { extendsFrom(configurations.runtimeOnly.get()) }
+}
+
 dependencies {
     implementation(Config.Projects.COMMONS_LANG_3)
     implementation(Config.Projects.COMMONS_COLLECTIONS_4)
@@ -71,12 +97,203 @@ dependencies {
     }
     implementation(Config.Projects.SELF4J_API)
     implementation(Config.Projects.SELF4J_LOG4J_12)
+    testImplementation(Config.Projects.COMMONS_MATH_3)
     testImplementation(Config.Projects.JUNIT_JUPITER_API)
+    testImplementation(Config.Projects.JUNIT_JUPITER_PARAMS)
     testRuntimeOnly(Config.Projects.JUNIT_JUPITER_ENGINE)
+    "jmhImplementation"(Config.Projects.JMH_CORE)
+    "jmhAnnotationProcessor"(Config.Projects.JMH_GENERATOR_ANNPROCESS)
 }
 
 tasks.test {
     useJUnitPlatform()
+    // The runtime density benchmark creates hundreds of runtimes and only runs through perfDensity.
+    exclude("**/TestRuntimeDensity.class")
+}
+
+/*
+ * Usage: gradle perfCheck [-Pperf.baseline=build/reports/perf/results.jsonl] [-Pperf.baseline.version=3.0.1]
+ *                         [-Pperf.threshold=10] [-Pperf.alpha=0.05]
+ * The baseline defaults to the previous runs in the result file of this machine.
+ * docs/index.html can be the baseline as well, but it is from another machine and is informational only.
+ */
+tasks.register<JavaExec>("perfCheck") {
+    group = "verification"
+    description = "Runs the test suite and fails on significant regressions against the baseline."
+    dependsOn(tasks.test)
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass.set("com.caoccao.javet.perf.RegressionGate")
+    val resultFile = layout.buildDirectory.file("reports/perf/results.jsonl").get().asFile
+    val baselinePath = project.findProperty("perf.baseline")?.toString() ?: resultFile.absolutePath
+    val baselineVersion = project.findProperty("perf.baseline.version")?.toString()
+        ?: if (baselinePath.endsWith(".html")) Config.Versions.JAVET else ""
+    args(
+        resultFile.absolutePath,
+        file(baselinePath).absolutePath,
+        baselineVersion,
+        project.findProperty("perf.threshold")?.toString() ?: "10",
+        project.findProperty("perf.alpha")?.toString() ?: "0.05",
+    )
+}
+
+/*
+ * Usage: gradle soakSmoke
+ * Runs a short soak of a benchmark class whose test bodies compile scripts in the same runtimes again and again,
+ * so that scripts declaring globals, which fail on the second iteration, are caught.
+ */
+tasks.register<Test>("soakSmoke") {
+    group = "verification"
+    description = "Runs a short soak to verify that the test bodies can be repeated in the same runtimes."
+    useJUnitPlatform()
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter {
+        includeTestsMatching("com.caoccao.javet.perf.TestV8ValueFunction")
+    }
+    outputs.upToDateWhen { false }
+    doFirst {
+        systemProperty("javet.perf.soak.duration", "PT5S")
+        systemProperty("javet.perf.soak.sample.seconds", "1")
+    }
+}
+
+/*
+ * Usage: gradle perfMatrix [-Pperf.matrix.versions=2.1.2,2.2.0,3.0.1]
+ *                          [-Pperf.matrix.tests=TestV8ValueObject,TestV8ValueArray]
+ * Each Javet version runs the same test classes in its own forked JVM, one after another in the same session.
+ * The test classes are compiled against the Javet version of the build and have not been verified on other versions,
+ * so the default is the build version only. Other versions may miss APIs, e.g. NoSuchMethodError,
+ * so their failures are reported without stopping the matrix and their benchmarks are missing in the summary.
+ * The results are written to build/reports/perf/matrix/<version>.jsonl and summarized side by side in summary.md.
+ */
+val perfMatrixDirectory: File = layout.buildDirectory.dir("reports/perf/matrix").get().asFile
+val perfMatrixRunId = System.currentTimeMillis().toString()
+val perfMatrixTests = (project.findProperty("perf.matrix.tests")?.toString()
+    ?: "TestV8FunctionCallback,TestV8ValueArray,TestV8ValueFunction,TestV8ValueMap,TestV8ValueObject")
+    .split(",").map { it.trim() }.filter { it.isNotEmpty() }
+val perfMatrixVersions = (project.findProperty("perf.matrix.versions")?.toString() ?: Config.Versions.JAVET_MATRIX)
+    .split(",").map { it.trim() }.filter { it.isNotEmpty() }
+val perfMatrixTasks = perfMatrixVersions.map { javetVersion ->
+    val os = OperatingSystem.current()
+    val cpuArch = System.getProperty("os.arch")
+    val javetArtifactId = if (os.isMacOsX) {
+        "javet-macos"
+    } else if (os.isLinux && (cpuArch == "aarch64" || cpuArch == "arm64")) {
+        "javet-linux-arm64"
+    } else {
+        "javet"
+    }
+    val javetConfiguration = configurations.detachedConfiguration(
+        dependencies.create("com.caoccao.javet:$javetArtifactId:$javetVersion"))
+    val resultFile = File(perfMatrixDirectory, "$javetVersion.jsonl")
+    tasks.register<Test>("perfMatrix_" + javetVersion.replace(".", "_")) {
+        group = "benchmark"
+        description = "Runs the benchmark matrix against Javet $javetVersion."
+        useJUnitPlatform()
+        testClassesDirs = sourceSets.test.get().output.classesDirs
+        // The Javet jar of the build is replaced by the Javet jar of the version.
+        classpath = sourceSets.test.get().runtimeClasspath.filter { !it.name.startsWith("javet") } + javetConfiguration
+        ignoreFailures = javetVersion != Config.Versions.JAVET
+        filter {
+            perfMatrixTests.forEach { includeTestsMatching("com.caoccao.javet.perf.$it") }
+        }
+        outputs.upToDateWhen { false }
+        doFirst {
+            // Set at execution so that the defaults of all Test tasks below cannot override them.
+            systemProperty("javet.perf.result.file", resultFile.absolutePath)
+            systemProperty("javet.perf.run.id", perfMatrixRunId)
+            perfMatrixDirectory.mkdirs()
+            resultFile.delete()
+        }
+    }
+}
+perfMatrixTasks.zipWithNext { previousTask, nextTask -> nextTask.configure { mustRunAfter(previousTask) } }
+
+tasks.register("perfMatrix") {
+    group = "benchmark"
+    description = "Runs the same benchmarks against several Javet versions and summarizes them side by side."
+    dependsOn(perfMatrixTasks)
+    doLast {
+        val tpsMap = sortedMapOf<String, MutableMap<String, Long>>()
+        perfMatrixVersions.forEach { javetVersion ->
+            val resultFile = File(perfMatrixDirectory, "$javetVersion.jsonl")
+            if (resultFile.exists()) {
+                resultFile.readLines().filter { it.isNotBlank() }.forEach { line ->
+                    val result = groovy.json.JsonSlurper().parseText(line) as Map<*, *>
+                    val key = "${result["benchmark"]} ${result["params"]} ${result["runtimeType"]}"
+                    tpsMap.getOrPut(key) { mutableMapOf() }[javetVersion] = (result["tps"] as Number).toLong()
+                }
+            }
+        }
+        val lines = mutableListOf(
+            "| Benchmark | " + perfMatrixVersions.joinToString(" | ") + " |",
+            "|---|" + perfMatrixVersions.joinToString("") { "---:|" })
+        tpsMap.forEach { (key, tpsByVersion) ->
+            val tpsColumns = perfMatrixVersions.joinToString(" | ") { tpsByVersion[it]?.toString() ?: "" }
+            lines.add("| $key | $tpsColumns |")
+        }
+        val summaryFile = File(perfMatrixDirectory, "summary.md")
+        summaryFile.writeText(lines.joinToString("\n", postfix = "\n"))
+        logger.lifecycle("The TPS of ${perfMatrixVersions.size} Javet versions is summarized in $summaryFile.")
+    }
+}
+
+/*
+ * Usage: gradle perfDensity [-Pperf.density.heaps=768:512,256:128,64:32]
+ *                           [-Pjavet.perf.density.budget.mb=1024] [-Pjavet.perf.density.script=tenant.js]
+ * The V8 flags are sealed per JVM, so each max heap size : max old space size pair runs in its own forked JVM.
+ * Each runtime type runs in its own forked JVM as well, so that it does not reuse the pages of the other one.
+ * The results are appended to build/reports/perf/results.jsonl with the heap flags as params.
+ */
+val perfDensityHeaps = (project.findProperty("perf.density.heaps")?.toString() ?: "768:512,256:128,64:32")
+    .split(",").map { it.trim() }.filter { it.isNotEmpty() }
+val perfDensityTasks = perfDensityHeaps.flatMap { heap ->
+    val (maxHeapSize, maxOldSpaceSize) = heap.split(":").map { it.trim() }
+    listOf("V8", "Node").map { runtimeType -> Triple(runtimeType, maxHeapSize, maxOldSpaceSize) }
+}.map { (runtimeType, maxHeapSize, maxOldSpaceSize) ->
+    tasks.register<Test>("perfDensity_${runtimeType}_${maxHeapSize}_$maxOldSpaceSize") {
+        group = "benchmark"
+        description = "Runs the runtime density benchmark of $runtimeType with max heap size ${maxHeapSize}MB " +
+                "and max old space size ${maxOldSpaceSize}MB."
+        useJUnitPlatform()
+        testClassesDirs = sourceSets.test.get().output.classesDirs
+        classpath = sourceSets.test.get().runtimeClasspath
+        filter {
+            includeTestsMatching("com.caoccao.javet.perf.TestRuntimeDensity")
+        }
+        outputs.upToDateWhen { false }
+        doFirst {
+            systemProperty("javet.perf.density.runtime.type", runtimeType)
+            systemProperty("javet.perf.v8.max.heap.size", maxHeapSize)
+            systemProperty("javet.perf.v8.max.old.space.size", maxOldSpaceSize)
+        }
+    }
+}
+perfDensityTasks.zipWithNext { previousTask, nextTask -> nextTask.configure { mustRunAfter(previousTask) } }
+
+tasks.register("perfDensity") {
+    group = "benchmark"
+    description = "Runs the runtime density benchmark across several V8 heap flag settings."
+    dependsOn(perfDensityTasks)
+}
+
+/*
+ * Usage: gradle jmh [-Pjmh.includes=V8ValueObject] [-Pjmh.args="-f 1 -wi 1"]
+ * The JSON result is written to build/reports/jmh/results.json.
+ */
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst {
+        resultFile.parentFile.mkdirs()
+    }
+    args("-rf", "json", "-rff", resultFile.absolutePath)
+    project.findProperty("jmh.args")?.toString()?.split(" ")?.filter { it.isNotBlank() }?.let { args(it) }
+    project.findProperty("jmh.includes")?.toString()?.let { args(it) }
 }
 
 afterEvaluate {
@@ -92,6 +309,18 @@ tasks.withType<JavaCompile> {
 
 tasks.withType<Test> {
     systemProperty("file.encoding", "UTF-8")
+    systemProperty(
+        "javet.perf.result.file",
+        layout.buildDirectory.file("reports/perf/results.jsonl").get().asFile.absolutePath)
+    systemProperty("javet.perf.run.id", System.currentTimeMillis().toString())
+    // Forward the benchmark settings, e.g. -Pjavet.perf.soak.duration=30, to the test JVM.
+    (System.getProperties().toMap() + project.properties)
+        .filterKeys { it.toString().startsWith("javet.perf.") }
+        .forEach { (key, value) -> systemProperty(key.toString(), value.toString()) }
+    if ((System.getProperty("javet.perf.jfr") ?: project.findProperty("javet.perf.jfr")?.toString()) == "true") {
+        // The default stack depth 64 truncates the stacks of the callbacks.
+        jvmArgs("-XX:FlightRecorderOptions:stackdepth=256")
+    }
 }
 
 tasks.withType<Javadoc> {
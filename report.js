@@ -1,88 +1,142 @@
-/*
- * Copyright (c) 2023. caoccao.com Sam Cao
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-/*
- * This application is a report collector and document generator.
- * It scans the test reports, extracts the test results and generates the document.
- */
-
-const fs = require('fs');
-const path = require('path');
-
-const htmlReportPath = 'docs/index.html';
-const reportMap = {};
-const testReportPath = 'build/reports/tests/test/classes';
-
-function collectTestReports(rootPath, reportMap) {
-  console.info(`Scanning ${rootPath}.`);
-  fs.readdirSync(rootPath, { withFileTypes: true }).forEach(file => {
-    if (file.isDirectory()) {
-      collectTestReports(file, reportMap);
-    } else if (file.isFile() && file.name.endsWith('.html')) {
-      console.info(`  Processing ${file.name}.`);
-      const content = fs.readFileSync(path.join(rootPath, file.name), { encoding: 'utf8' });
-      for (const versionMatch of content.matchAll(/Javet version is ([\d\.]+)/g)) {
-        const version = versionMatch[1].replaceAll(/\.+$/g, '');
-        for (const match of content.matchAll(/\[\s*(v8|node)\]\s*(\w+): [\w\s\.]* (\d+)\./gm)) {
-          const type = match[1];
-          const name = match[2];
-          const data = match[3];
-          let versionedReportMap = reportMap[version];
-          if (versionedReportMap === undefined) {
-            versionedReportMap = {};
-            reportMap[version] = versionedReportMap;
-          }
-          let namedReportMap = versionedReportMap[name];
-          if (namedReportMap === undefined) {
-            namedReportMap = {};
-            versionedReportMap[name] = namedReportMap;
-          }
-          namedReportMap[type] = data;
-        }
-        break;
-      }
-    }
-  });
-}
-
-function generateDocument(htmlReportPath, reportMap) {
-  const originalContent = fs.readFileSync(htmlReportPath, { encoding: 'utf8' });
-  const lines = [];
-  originalContent.split('\n').forEach(line => {
-    line = line.trimEnd();
-    if (line.startsWith('        reportMap[')) {
-      const startIndex = line.indexOf("'");
-      const endIndex = line.indexOf("'", startIndex + 1);
-      const version = line.substring(startIndex + 1, endIndex);
-      if (version in reportMap) {
-        const data = reportMap[version];
-        line = `        reportMap['${version}'] = ${JSON.stringify(data)};`;
-      }
-    }
-    lines.push(line);
-  });
-  const newContent = lines.join('\n');
-  console.info();
-  if (originalContent != newContent) {
-    fs.writeFileSync(htmlReportPath, newContent);
-    console.info(`Generated ${htmlReportPath}.`);
-  } else {
-    console.info(`Skipped ${htmlReportPath}.`);
-  }
-}
-
-collectTestReports(testReportPath, reportMap);
-generateDocument(htmlReportPath, reportMap);
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * This application is a report collector and document generator.
+ * It merges the structured result files, extracts the TPS of each test case and generates the document.
+ * Usage: node report.js [result files...]
+ */
+
+const fs = require('fs');
+
+const boundaryMap = {};
+const htmlReportPath = 'docs/index.html';
+const reportMap = {};
+const resultFilePaths = process.argv.length > 2 ? process.argv.slice(2) : ['build/reports/perf/results.jsonl'];
+const runtimeTypes = ['v8', 'node'];
+// Only the original test cases are charted in the history.
+const historicalNames = new Set([
+  'V8FunctionCallbackReceiveCallbackWith20Arguments',
+  'V8FunctionCallbackReceiveCallbackWithoutArguments',
+  'V8ValueArrayForEachWithUniConsumer',
+  'V8ValueArrayForEachWithUniIndexedConsumer',
+  'V8ValueFunctionCallWith20Arguments',
+  'V8ValueFunctionCallWithoutArguments',
+  'V8ValueMapGetBoolean',
+  'V8ValueMapGetDouble',
+  'V8ValueMapGetInteger',
+  'V8ValueMapGetLong',
+  'V8ValueMapGetString',
+  'V8ValueObjectForEachWithBiConsumer',
+  'V8ValueObjectForEachWithBiIndexedConsumer',
+  'V8ValueObjectForEachWithUniConsumer',
+  'V8ValueObjectForEachWithUniIndexedConsumer',
+  'V8ValueObjectGetBoolean',
+  'V8ValueObjectGetDouble',
+  'V8ValueObjectGetInteger',
+  'V8ValueObjectGetLong',
+  'V8ValueObjectGetString',
+]);
+// The size sweep records the historical default size as a param.
+const historicalParams = { size: 1000 };
+
+function isHistorical(result) {
+  return historicalNames.has(result.benchmark)
+    && Object.entries(result.params).every(([key, value]) => historicalParams[key] === value);
+}
+
+function collectBoundary(result, boundaryMap) {
+  // The boundary overhead has no TPS, it splits the cost per operation into the engine and the crossing.
+  let versionedBoundaryMap = boundaryMap[result.javetVersion];
+  if (versionedBoundaryMap === undefined) {
+    versionedBoundaryMap = {};
+    boundaryMap[result.javetVersion] = versionedBoundaryMap;
+  }
+  const name = result.params.operation;
+  const namedBoundaryMap = versionedBoundaryMap[name] || {};
+  namedBoundaryMap[result.runtimeType] = {
+    engine: Number(result.metrics.engineNanosPerOperation.toFixed(1)),
+    crossing: Number(result.metrics.crossingNanosPerOperation.toFixed(1)),
+  };
+  const sortedBoundaryMap = {};
+  runtimeTypes.filter(type => type in namedBoundaryMap).forEach(type => sortedBoundaryMap[type] = namedBoundaryMap[type]);
+  versionedBoundaryMap[name] = sortedBoundaryMap;
+}
+
+function collectResults(resultFilePath, reportMap, boundaryMap) {
+  console.info(`Merging ${resultFilePath}.`);
+  const content = fs.readFileSync(resultFilePath, { encoding: 'utf8' });
+  content.split('\n').filter(line => line.trim().length > 0).forEach(line => {
+    const result = JSON.parse(line);
+    if (result.benchmark === 'BoundaryOverhead') {
+      collectBoundary(result, boundaryMap);
+      return;
+    }
+    // Only the original test cases with the historical params are comparable with the history.
+    if (!isHistorical(result)) {
+      return;
+    }
+    const version = result.javetVersion;
+    const name = result.benchmark;
+    let versionedReportMap = reportMap[version];
+    if (versionedReportMap === undefined) {
+      versionedReportMap = {};
+      reportMap[version] = versionedReportMap;
+    }
+    const namedReportMap = versionedReportMap[name] || {};
+    namedReportMap[result.runtimeType] = String(Math.floor(result.tps));
+    // Keep the runtime types in a stable order for the charts.
+    const sortedReportMap = {};
+    runtimeTypes.filter(type => type in namedReportMap).forEach(type => sortedReportMap[type] = namedReportMap[type]);
+    versionedReportMap[name] = sortedReportMap;
+  });
+}
+
+function generateDocument(htmlReportPath, reportMap, boundaryMap) {
+  const originalContent = fs.readFileSync(htmlReportPath, { encoding: 'utf8' });
+  const lines = [];
+  originalContent.split('\n').forEach(line => {
+    line = line.trimEnd();
+    if (line.startsWith('        reportMap[')) {
+      const startIndex = line.indexOf("'");
+      const endIndex = line.indexOf("'", startIndex + 1);
+      const version = line.substring(startIndex + 1, endIndex);
+      if (version in reportMap) {
+        const data = reportMap[version];
+        line = `        reportMap['${version}'] = ${JSON.stringify(data)};`;
+      }
+    } else if (line.startsWith('        boundaryMap[')) {
+      const startIndex = line.indexOf("'");
+      const endIndex = line.indexOf("'", startIndex + 1);
+      const version = line.substring(startIndex + 1, endIndex);
+      if (version in boundaryMap) {
+        line = `        boundaryMap['${version}'] = ${JSON.stringify(boundaryMap[version])};`;
+      }
+    }
+    lines.push(line);
+  });
+  const newContent = lines.join('\n');
+  console.info();
+  if (originalContent != newContent) {
+    fs.writeFileSync(htmlReportPath, newContent);
+    console.info(`Generated ${htmlReportPath}.`);
+  } else {
+    console.info(`Skipped ${htmlReportPath}.`);
+  }
+}
+
+resultFilePaths.forEach(resultFilePath => collectResults(resultFilePath, reportMap, boundaryMap));
+generateDocument(htmlReportPath, reportMap, boundaryMap);
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.enums.JSRuntimeType;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.options.NodeRuntimeOptions;
+import com.caoccao.javet.interop.options.V8Flags;
+import com.caoccao.javet.interop.options.V8RuntimeOptions;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The base state of all JMH benchmarks.
+ * Each trial gets its own V8 or Node runtime which is verified and closed after the trial.
+ */
+@State(Scope.Thread)
+public abstract class BaseBenchmarkJavet {
+    @Param({"V8", "Node"})
+    public JSRuntimeType jsRuntimeType;
+    protected V8Runtime v8Runtime;
+
+    public BaseBenchmarkJavet() {
+        for (V8Flags v8Flags : new V8Flags[]{NodeRuntimeOptions.V8_FLAGS, V8RuntimeOptions.V8_FLAGS}) {
+            if (!v8Flags.isSealed()) {
+                v8Flags.setAllowNativesSyntax(true);
+                v8Flags.setExposeGC(false);
+                v8Flags.setExposeInspectorScripts(true);
+                v8Flags.setMaxHeapSize(768);
+                v8Flags.setMaxOldSpaceSize(512);
+                v8Flags.setUseStrict(true);
+                v8Flags.setTrackRetainingPath(true);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        v8Runtime = V8Host.getInstance(jsRuntimeType).createV8Runtime();
+        setupRuntime();
+    }
+
+    /**
+     * Sets up the benchmark specific resources after the runtime is created.
+     *
+     * @throws Exception the exception
+     */
+    protected abstract void setupRuntime() throws Exception;
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        tearDownRuntime();
+        v8Runtime.lowMemoryNotification();
+        if (v8Runtime.getCallbackContextCount() != 0) {
+            throw new IllegalStateException("Callback context count should be 0 after benchmark is ended.");
+        }
+        if (v8Runtime.getReferenceCount() != 0) {
+            throw new IllegalStateException("Reference count should be 0 after benchmark is ended.");
+        }
+        v8Runtime.close();
+        v8Runtime = null;
+    }
+
+    /**
+     * Tears down the benchmark specific resources before the runtime is closed.
+     *
+     * @throws Exception the exception
+     */
+    protected abstract void tearDownRuntime() throws Exception;
+}
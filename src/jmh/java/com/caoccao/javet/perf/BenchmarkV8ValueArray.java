@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class BenchmarkV8ValueArray extends BaseBenchmarkJavet {
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    public int arrayLength;
+    protected V8ValueArray v8ValueArray;
+
+    @Benchmark
+    public void forEachWithUniConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueArray.forEach((V8ValueInteger value) -> blackhole.consume(value.getValue())));
+    }
+
+    @Benchmark
+    public void forEachWithUniIndexedConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueArray.forEach(
+                (int index, V8ValueInteger value) -> blackhole.consume(value.getValue())));
+    }
+
+    @Override
+    protected void setupRuntime() throws Exception {
+        v8ValueArray = v8Runtime.getExecutor(
+                "Array.from({ length: " + arrayLength + " }, (_, i) => i)").execute();
+    }
+
+    @Override
+    protected void tearDownRuntime() throws Exception {
+        v8ValueArray.close();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class BenchmarkV8ValueFunction extends BaseBenchmarkJavet {
+    protected V8Value[] arguments;
+    protected V8ValueFunction v8ValueFunctionWith20Arguments;
+    protected V8ValueFunction v8ValueFunctionWithoutArguments;
+
+    @Benchmark
+    public int callWith20Arguments() throws Exception {
+        V8ValueInteger v8ValueInteger = v8ValueFunctionWith20Arguments.call(null, arguments);
+        return v8ValueInteger.getValue();
+    }
+
+    @Benchmark
+    public int callWithoutArguments() throws Exception {
+        V8ValueInteger v8ValueInteger = v8ValueFunctionWithoutArguments.call(null);
+        return v8ValueInteger.getValue();
+    }
+
+    @Override
+    protected void setupRuntime() throws Exception {
+        arguments = new V8Value[20];
+        Arrays.fill(arguments, v8Runtime.createV8ValueInteger(1));
+        v8ValueFunctionWith20Arguments = v8Runtime.createV8ValueFunction(
+                "const a = function() { return arguments.length; }; a;");
+        v8ValueFunctionWithoutArguments = v8Runtime.createV8ValueFunction(
+                "const b = function() { return 1; }; b;");
+    }
+
+    @Override
+    protected void tearDownRuntime() throws Exception {
+        v8ValueFunctionWith20Arguments.close();
+        v8ValueFunctionWithoutArguments.close();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.reference.V8ValueMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class BenchmarkV8ValueMap extends BaseBenchmarkJavet {
+    protected V8ValueMap v8ValueMap;
+
+    @Benchmark
+    public Boolean getBoolean() throws Exception {
+        return v8ValueMap.getBoolean("a");
+    }
+
+    @Benchmark
+    public Double getDouble() throws Exception {
+        return v8ValueMap.getDouble("b");
+    }
+
+    @Benchmark
+    public Integer getInteger() throws Exception {
+        return v8ValueMap.getInteger("c");
+    }
+
+    @Benchmark
+    public Long getLong() throws Exception {
+        return v8ValueMap.getLong("d");
+    }
+
+    @Benchmark
+    public String getString() throws Exception {
+        return v8ValueMap.getString("e");
+    }
+
+    @Override
+    protected void setupRuntime() throws Exception {
+        v8ValueMap = v8Runtime.createV8ValueMap();
+        v8ValueMap.set("a", true);
+        v8ValueMap.set("b", 1.23D);
+        v8ValueMap.set("c", 1000);
+        v8ValueMap.set("d", 1000L);
+        v8ValueMap.set("e", "a");
+    }
+
+    @Override
+    protected void tearDownRuntime() throws Exception {
+        v8ValueMap.close();
+    }
+}
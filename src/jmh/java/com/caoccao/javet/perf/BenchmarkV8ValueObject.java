@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class BenchmarkV8ValueObject extends BaseBenchmarkJavet {
+    protected V8ValueObject v8ValueObject;
+
+    @Benchmark
+    public Boolean getBoolean() throws Exception {
+        return v8ValueObject.getBoolean("a");
+    }
+
+    @Benchmark
+    public Double getDouble() throws Exception {
+        return v8ValueObject.getDouble("b");
+    }
+
+    @Benchmark
+    public Integer getInteger() throws Exception {
+        return v8ValueObject.getInteger("c");
+    }
+
+    @Benchmark
+    public Long getLong() throws Exception {
+        return v8ValueObject.getLong("d");
+    }
+
+    @Benchmark
+    public String getString() throws Exception {
+        return v8ValueObject.getString("e");
+    }
+
+    @Override
+    protected void setupRuntime() throws Exception {
+        v8ValueObject = v8Runtime.createV8ValueObject();
+        v8ValueObject.set("a", true);
+        v8ValueObject.set("b", 1.23D);
+        v8ValueObject.set("c", 1000);
+        v8ValueObject.set("d", 1000L);
+        v8ValueObject.set("e", "a");
+    }
+
+    @Override
+    protected void tearDownRuntime() throws Exception {
+        v8ValueObject.close();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.primitive.V8ValueString;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The forEach benchmarks of V8ValueObject sweep the key count.
+ * They are separated from the getters so that the getters are not repeated for every key count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class BenchmarkV8ValueObjectForEach extends BaseBenchmarkJavet {
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    public int keyLength;
+    protected V8ValueObject v8ValueObjectWithKeys;
+
+    @Benchmark
+    public void forEachWithBiConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueObjectWithKeys.forEach(
+                (V8ValueString key, V8ValueInteger value) -> blackhole.consume(value.getValue())));
+    }
+
+    @Benchmark
+    public void forEachWithBiIndexedConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueObjectWithKeys.forEach(
+                (int index, V8ValueString key, V8ValueInteger value) -> blackhole.consume(value.getValue())));
+    }
+
+    @Benchmark
+    public void forEachWithUniConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueObjectWithKeys.forEach(
+                (V8ValueString key) -> blackhole.consume(key.getValue().substring(1))));
+    }
+
+    @Benchmark
+    public void forEachWithUniIndexedConsumer(Blackhole blackhole) throws Exception {
+        blackhole.consume(v8ValueObjectWithKeys.forEach(
+                (int index, V8ValueString key) -> blackhole.consume(key.getValue().substring(1))));
+    }
+
+    @Override
+    protected void setupRuntime() throws Exception {
+        v8ValueObjectWithKeys = v8Runtime.getExecutor(
+                "(() => { const a = {};" +
+                        "Array.from({ length: " + keyLength + " }, (_, i) => { a[' ' + i] = i; return i; });" +
+                        "return a; })()").execute();
+    }
+
+    @Override
+    protected void tearDownRuntime() throws Exception {
+        v8ValueObjectWithKeys.close();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * The allocation recorder captures the Java bytes allocated by the current thread,
+ * the GC count and time of all collectors and the V8 heap statistics
+ * within a measured window.
+ * It is not thread-safe and is designed to be reset and reused by one thread.
+ */
+public final class AllocationRecorder {
+    private static final List<GarbageCollectorMXBean> GARBAGE_COLLECTOR_MX_BEANS =
+            ManagementFactory.getGarbageCollectorMXBeans();
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN;
+
+    static {
+        THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (THREAD_MX_BEAN.isThreadAllocatedMemorySupported() && !THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled()) {
+            THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private long allocatedBytes;
+    private long gcCount;
+    private long gcTime;
+    private long suspendedAllocatedBytes;
+    private V8HeapStatistics v8HeapStatisticsAfter;
+    private V8HeapStatistics v8HeapStatisticsBefore;
+
+    public AllocationRecorder() {
+        reset();
+    }
+
+    private static long getCollectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : GARBAGE_COLLECTOR_MX_BEANS) {
+            count += Math.max(0L, garbageCollectorMXBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getCollectionTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : GARBAGE_COLLECTOR_MX_BEANS) {
+            time += Math.max(0L, garbageCollectorMXBean.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled() ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    /**
+     * Discards the V8 heap statistics, e.g. when the runtime under test is not the measured runtime.
+     * They are then reported as -1.
+     */
+    public void discardV8HeapStatistics() {
+        v8HeapStatisticsAfter = null;
+        v8HeapStatisticsBefore = null;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedBytesPerOperation(long operationCount) {
+        return operationCount > 0 ? (double) allocatedBytes / operationCount : 0D;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTime() {
+        return gcTime;
+    }
+
+    public V8HeapStatistics getV8HeapStatisticsAfter() {
+        return v8HeapStatisticsAfter;
+    }
+
+    public V8HeapStatistics getV8HeapStatisticsBefore() {
+        return v8HeapStatisticsBefore;
+    }
+
+    public void reset() {
+        allocatedBytes = 0;
+        gcCount = 0;
+        gcTime = 0;
+        suspendedAllocatedBytes = 0;
+        v8HeapStatisticsAfter = null;
+        v8HeapStatisticsBefore = null;
+    }
+
+    /**
+     * Resumes the recording after {@link #suspend()}. The allocation in between is not counted.
+     */
+    public void resume() {
+        allocatedBytes += getCurrentThreadAllocatedBytes() - suspendedAllocatedBytes;
+    }
+
+    /**
+     * Starts the recording. The V8 heap statistics are taken first
+     * so that their own allocation is not counted.
+     *
+     * @param v8Runtime the V8 runtime
+     */
+    public void start(V8Runtime v8Runtime) {
+        reset();
+        v8HeapStatisticsBefore = v8Runtime.getV8HeapStatistics();
+        gcCount = getCollectionCount();
+        gcTime = getCollectionTime();
+        allocatedBytes = getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Stops the recording. The V8 heap statistics are taken last
+     * so that their own allocation is not counted.
+     *
+     * @param v8Runtime the V8 runtime
+     */
+    public void stop(V8Runtime v8Runtime) {
+        allocatedBytes = getCurrentThreadAllocatedBytes() - allocatedBytes;
+        gcCount = getCollectionCount() - gcCount;
+        gcTime = getCollectionTime() - gcTime;
+        v8HeapStatisticsAfter = v8Runtime.getV8HeapStatistics();
+    }
+
+    /**
+     * Suspends the recording, e.g. while the runtime under test is created or closed.
+     * The GC count and time are not suspended.
+     */
+    public void suspend() {
+        suspendedAllocatedBytes = getCurrentThreadAllocatedBytes();
+    }
+}
@@ -16,28 +16,57 @@
 
 package com.caoccao.javet.perf;
 
+import com.caoccao.javet.exceptions.JavetException;
 import com.caoccao.javet.interop.V8Host;
 import com.caoccao.javet.interop.V8Runtime;
-import com.caoccao.javet.interop.loader.JavetLibLoader;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
 import com.caoccao.javet.interop.options.NodeRuntimeOptions;
 import com.caoccao.javet.interop.options.V8Flags;
 import com.caoccao.javet.interop.options.V8RuntimeOptions;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.reference.V8ValuePromise;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+@ExtendWith(SoakExtension.class)
 public abstract class BaseTestJavet {
+    /**
+     * The upper bounds of the allocation of a primitive call, assuming uncompressed references.
+     */
+    protected static final int ALLOCATION_ARRAY_HEADER_BYTES = 16;
+    protected static final int ALLOCATION_REFERENCE_BYTES = 8;
+    protected static final int ALLOCATION_SLACK_BYTES = 64;
+    protected static final int ALLOCATION_V8_VALUE_BYTES = 32;
+    /**
+     * The shared empty argument array avoids the allocation of an empty varargs array per call.
+     */
+    protected static final V8Value[] EMPTY_ARGUMENTS = new V8Value[0];
+    public static final String PROPERTY_ALLOCATION_MAX_BYTES_PER_OPERATION = "javet.perf.allocation.max.bytes.per.op";
+    public static final String PROPERTY_V8_MAX_HEAP_SIZE = "javet.perf.v8.max.heap.size";
+    public static final String PROPERTY_V8_MAX_OLD_SPACE_SIZE = "javet.perf.v8.max.old.space.size";
+    protected AllocationRecorder allocationRecorder;
+    protected JfrRecorder jfrRecorder;
+    protected LatencyRecorder latencyRecorder;
     protected Logger logger;
+    protected BenchmarkPhaseEvent measureEvent;
     protected V8Runtime nodeRuntime;
     protected List<V8Runtime> runtimes;
     protected StopWatch stopWatch;
+    protected String testName;
+    protected ThroughputSampler throughputSampler;
     protected V8Runtime v8Runtime;
 
     public BaseTestJavet() {
@@ -47,24 +76,272 @@ public abstract class BaseTestJavet {
                 v8Flags.setAllowNativesSyntax(true);
                 v8Flags.setExposeGC(false);
                 v8Flags.setExposeInspectorScripts(true);
-                v8Flags.setMaxHeapSize(768);
-                v8Flags.setMaxOldSpaceSize(512);
+                v8Flags.setMaxHeapSize(getMaxHeapSize());
+                v8Flags.setMaxOldSpaceSize(getMaxOldSpaceSize());
                 v8Flags.setUseStrict(true);
                 v8Flags.setTrackRetainingPath(true);
             }
         }
     }
 
+    /**
+     * Runs the event loop or the microtasks of the runtime until the promise is settled
+     * and asserts that the promise is fulfilled.
+     *
+     * @param runtime        the runtime
+     * @param v8ValuePromise the promise
+     * @throws JavetException the javet exception
+     */
+    protected static void awaitPromise(V8Runtime runtime, V8ValuePromise v8ValuePromise) throws JavetException {
+        while (v8ValuePromise.isPending()) {
+            runtime.await();
+        }
+        assertTrue(v8ValuePromise.isFulfilled(), "Promise should be fulfilled.");
+    }
+
+    /**
+     * Gets the V8 max heap size in MB. It defaults to 768 and can be overridden by
+     * system property javet.perf.v8.max.heap.size. The V8 flags are sealed by the first runtime,
+     * so a different setting requires a new JVM.
+     *
+     * @return the max heap size in MB
+     */
+    protected static int getMaxHeapSize() {
+        return Integer.getInteger(PROPERTY_V8_MAX_HEAP_SIZE, 768);
+    }
+
+    /**
+     * Gets the V8 max old space size in MB. It defaults to 512 and can be overridden by
+     * system property javet.perf.v8.max.old.space.size.
+     *
+     * @return the max old space size in MB
+     */
+    protected static int getMaxOldSpaceSize() {
+        return Integer.getInteger(PROPERTY_V8_MAX_OLD_SPACE_SIZE, 512);
+    }
+
     @BeforeAll
     protected static void beforeAll() {
-        LoggerFactory.getLogger("Version").info("Javet version is {}.", JavetLibLoader.LIB_VERSION);
+        LoggerFactory.getLogger("Version").info("Javet version is {}.", BenchmarkResult.JAVET_VERSION);
         System.gc();
     }
 
     @AfterEach
     protected void afterEach() throws Exception {
+        try {
+            verifyAndCloseRuntimes();
+        } finally {
+            jfrRecorder.stop();
+        }
+    }
+
+    /**
+     * Asserts that the allocation per operation of the last measurement of a primitive call, e.g. callInteger()
+     * or invokeInteger(), does not exceed what that call is documented to allocate.
+     * <p>
+     * Javet 3.0.1 has no allocation-free primitive overload. These calls take Object... arguments,
+     * copy them into a converted argument array and still create and close a V8 value for the result.
+     * A Java callback receives another argument array with one V8 value per argument
+     * and its return value is converted to a V8 value as well. So the bound is 2 result V8 values,
+     * 2 argument arrays and 1 V8 value per argument, plus slack for the recorders and the JIT.
+     * It can be overridden by system property javet.perf.allocation.max.bytes.per.op.
+     *
+     * @param loopCount     the loop count
+     * @param argumentCount the argument count per call
+     */
+    protected void assertAllocationPerOperation(long loopCount, int argumentCount) {
+        final double allocatedBytesPerOperation = allocationRecorder.getAllocatedBytesPerOperation(loopCount);
+        final String maxBytesPerOperationString = System.getProperty(PROPERTY_ALLOCATION_MAX_BYTES_PER_OPERATION);
+        final double maxBytesPerOperation = maxBytesPerOperationString == null
+                ? 2 * ALLOCATION_V8_VALUE_BYTES
+                + 2 * (ALLOCATION_ARRAY_HEADER_BYTES + ALLOCATION_REFERENCE_BYTES * argumentCount)
+                + ALLOCATION_V8_VALUE_BYTES * argumentCount
+                + ALLOCATION_SLACK_BYTES
+                : Double.parseDouble(maxBytesPerOperationString);
+        assertTrue(allocatedBytesPerOperation <= maxBytesPerOperation, String.format(
+                "Allocation %.1f bytes/op should not exceed %.1f bytes/op with %d arguments.",
+                allocatedBytesPerOperation, maxBytesPerOperation, argumentCount));
+    }
+
+    @BeforeEach
+    protected void beforeEach(TestInfo testInfo) throws Exception {
+        testName = getClass().getSimpleName() + "."
+                + testInfo.getTestMethod().map(Method::getName).orElse("") + " " + testInfo.getDisplayName();
+        jfrRecorder = new JfrRecorder(testName);
+        jfrRecorder.start();
+        BenchmarkPhaseEvent setupEvent = new BenchmarkPhaseEvent(testName, BenchmarkPhaseEvent.PHASE_SETUP, null);
+        setupEvent.begin();
+        nodeRuntime = V8Host.getNodeInstance().createV8Runtime();
+        v8Runtime = V8Host.getV8Instance().createV8Runtime();
+        setupEvent.commit();
+        measureEvent = null;
+        runtimes = List.of(v8Runtime, nodeRuntime);
+        stopWatch = new StopWatch();
+        latencyRecorder = new LatencyRecorder();
+        allocationRecorder = new AllocationRecorder();
+        throughputSampler = new ThroughputSampler();
+    }
+
+    /**
+     * Creates a benchmark result for the runtime. Params can be added before it is logged.
+     *
+     * @param runtime the runtime
+     * @param name    the name
+     * @return the benchmark result
+     */
+    protected BenchmarkResult createResult(V8Runtime runtime, String name) {
+        return new BenchmarkResult(name, runtime.getJSRuntimeType().getName());
+    }
+
+    /**
+     * Logs the TPS, the latency percentiles and the allocation of the last measurement
+     * and appends the result to the result sink.
+     *
+     * @param benchmarkResult the benchmark result with name, runtime type and params
+     * @param loopCount       the loop count
+     * @return the benchmark result
+     */
+    protected BenchmarkResult logResult(BenchmarkResult benchmarkResult, long loopCount) {
+        if (measureEvent != null) {
+            // The measure event is ended when the measurement is stopped and committed once the name is known.
+            measureEvent.setBenchmark(benchmarkResult.getName() + " " + benchmarkResult.getParams());
+            measureEvent.setRuntimeType(benchmarkResult.getRuntimeType());
+            measureEvent.commit();
+            measureEvent = null;
+        }
+        benchmarkResult
+                .setThroughput(loopCount, stopWatch.getNanoTime())
+                .setLatency(latencyRecorder)
+                .setAllocation(allocationRecorder)
+                .setSamples(throughputSampler.getSamples());
+        final String runtimeName = StringUtils.leftPad(benchmarkResult.getRuntimeType(), 4);
+        final String name = benchmarkResult.getParams().isEmpty()
+                ? benchmarkResult.getName()
+                : benchmarkResult.getName() + " " + benchmarkResult.getParams();
+        logger.info(
+                "[{}] {}: {} calls in {}ms. TPS is {}.",
+                runtimeName, name, loopCount, stopWatch.getTime(), (long) benchmarkResult.getTps());
+        if (benchmarkResult.getBytesPerOperation() > 0) {
+            logger.info(
+                    "[{}] {} bandwidth: {} bytes/op, {} MB/s.",
+                    runtimeName, name, benchmarkResult.getBytesPerOperation(),
+                    String.format("%.1f", benchmarkResult.getMegabytesPerSecond()));
+        }
+        logger.info(
+                "[{}] {} latency: p50 {}ns, p90 {}ns, p99 {}ns, p99.9 {}ns, max {}ns.",
+                runtimeName, name,
+                latencyRecorder.getValueAtPercentile(50D),
+                latencyRecorder.getValueAtPercentile(90D),
+                latencyRecorder.getValueAtPercentile(99D),
+                latencyRecorder.getValueAtPercentile(99.9D),
+                latencyRecorder.getMax());
+        logger.info(
+                "[{}] {} allocation: {} bytes/op, GC count {}, GC time {}ms, V8 used heap {} -> {} bytes.",
+                runtimeName, name,
+                String.format("%.1f", allocationRecorder.getAllocatedBytesPerOperation(loopCount)),
+                allocationRecorder.getGcCount(),
+                allocationRecorder.getGcTime(),
+                allocationRecorder.getV8HeapStatisticsBefore().getUsedHeapSize(),
+                allocationRecorder.getV8HeapStatisticsAfter().getUsedHeapSize());
+        ResultSink.getInstance().write(benchmarkResult);
+        return benchmarkResult;
+    }
+
+    /**
+     * Logs the result of the last measurement without params.
+     *
+     * @param runtime   the runtime
+     * @param name      the name
+     * @param loopCount the loop count
+     * @return the benchmark result
+     */
+    protected BenchmarkResult logResult(V8Runtime runtime, String name, long loopCount) {
+        return logResult(createResult(runtime, name), loopCount);
+    }
+
+    /**
+     * Records the latency of one operation and feeds the throughput sampler.
+     * The returned end time is meant to be the start time of the next operation
+     * so that only one clock read is spent per operation.
+     *
+     * @param startTime the start time in nanoseconds
+     * @return the end time in nanoseconds
+     */
+    protected long recordLatency(long startTime) {
+        final long endTime = System.nanoTime();
+        latencyRecorder.record(endTime - startTime);
+        throughputSampler.record(endTime);
+        return endTime;
+    }
+
+    /**
+     * Records the latency of a batch of operations executed in one call, e.g. a JS loop.
+     * The average latency per operation is recorded and the throughput sampler counts every operation.
+     *
+     * @param startTime the start time in nanoseconds
+     * @param batchSize the operation count in the batch
+     * @return the end time in nanoseconds
+     */
+    protected long recordLatency(long startTime, int batchSize) {
+        final long endTime = System.nanoTime();
+        latencyRecorder.record((endTime - startTime) / batchSize);
+        throughputSampler.record(endTime, batchSize);
+        return endTime;
+    }
+
+    /**
+     * Starts the measurement.
+     *
+     * @param runtime the runtime
+     * @return the start time of the first operation in nanoseconds
+     */
+    protected long startMeasurement(V8Runtime runtime) {
+        measureEvent = new BenchmarkPhaseEvent(
+                testName, BenchmarkPhaseEvent.PHASE_MEASURE, runtime.getJSRuntimeType().getName());
+        measureEvent.begin();
+        allocationRecorder.start(runtime);
+        latencyRecorder.reset();
+        stopWatch.reset();
+        stopWatch.start();
+        final long startTime = System.nanoTime();
+        throughputSampler.reset(startTime);
+        return startTime;
+    }
+
+    /**
+     * Stops the measurement.
+     *
+     * @param runtime the runtime
+     */
+    protected void stopMeasurement(V8Runtime runtime) {
+        stopWatch.stop();
+        allocationRecorder.stop(runtime);
+        if (measureEvent != null) {
+            measureEvent.end();
+        }
+    }
+
+    /**
+     * Verifies that no reference or callback context is leaked and closes the runtimes.
+     *
+     * @throws Exception the exception
+     */
+    protected void verifyAndCloseRuntimes() throws Exception {
+        BenchmarkPhaseEvent lowMemoryNotificationEvent = new BenchmarkPhaseEvent(
+                testName, BenchmarkPhaseEvent.PHASE_LOW_MEMORY_NOTIFICATION, null);
+        lowMemoryNotificationEvent.begin();
         nodeRuntime.lowMemoryNotification();
         v8Runtime.lowMemoryNotification();
+        lowMemoryNotificationEvent.commit();
+        for (V8Runtime runtime : runtimes) {
+            V8HeapStatistics v8HeapStatistics = runtime.getV8HeapStatistics();
+            logger.debug(
+                    "[{}] V8 heap after test case is ended: used {} bytes, total {} bytes, external {} bytes.",
+                    StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4),
+                    v8HeapStatistics.getUsedHeapSize(),
+                    v8HeapStatistics.getTotalHeapSize(),
+                    v8HeapStatistics.getExternalMemory());
+        }
         assertEquals(0, nodeRuntime.getCallbackContextCount(),
                 "Callback context count should be 0 after test case is ended.");
         assertEquals(0, nodeRuntime.getReferenceCount(),
@@ -73,18 +350,14 @@ public abstract class BaseTestJavet {
                 "Callback context count should be 0 after test case is ended.");
         assertEquals(0, v8Runtime.getReferenceCount(),
                 "Reference count should be 0 before test case is started.");
+        BenchmarkPhaseEvent closeEvent = new BenchmarkPhaseEvent(
+                testName, BenchmarkPhaseEvent.PHASE_RUNTIME_CLOSE, null);
+        closeEvent.begin();
         nodeRuntime.close();
         v8Runtime.close();
+        closeEvent.commit();
         assertEquals(0, V8Host.getNodeInstance().getV8RuntimeCount());
         assertEquals(0, V8Host.getV8Instance().getV8RuntimeCount());
         System.gc();
     }
-
-    @BeforeEach
-    protected void beforeEach() throws Exception {
-        nodeRuntime = V8Host.getNodeInstance().createV8Runtime();
-        v8Runtime = V8Host.getV8Instance().createV8Runtime();
-        runtimes = List.of(v8Runtime, nodeRuntime);
-        stopWatch = new StopWatch();
-    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import jdk.jfr.*;
+
+/**
+ * The benchmark phase event marks a phase of a test case in a JFR recording.
+ * The measure phases are used to scope the collapsed stacks to the measured windows.
+ * The events cost nearly nothing if no recording is running.
+ */
+@Name(BenchmarkPhaseEvent.NAME)
+@Label("Benchmark Phase")
+@Category({"Javet", "Benchmark"})
+@Description("A phase of a Javet benchmark test case.")
+@StackTrace(false)
+public final class BenchmarkPhaseEvent extends Event {
+    public static final String NAME = "com.caoccao.javet.perf.BenchmarkPhase";
+    public static final String PHASE_LOW_MEMORY_NOTIFICATION = "LowMemoryNotification";
+    public static final String PHASE_MEASURE = "Measure";
+    public static final String PHASE_RUNTIME_CLOSE = "RuntimeClose";
+    public static final String PHASE_SETUP = "Setup";
+    @Label("Benchmark")
+    private String benchmark;
+    @Label("Phase")
+    private String phase;
+    @Label("Runtime Type")
+    private String runtimeType;
+
+    public BenchmarkPhaseEvent(String benchmark, String phase, String runtimeType) {
+        this.benchmark = benchmark;
+        this.phase = phase;
+        this.runtimeType = runtimeType;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getRuntimeType() {
+        return runtimeType;
+    }
+
+    public void setBenchmark(String benchmark) {
+        this.benchmark = benchmark;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public void setRuntimeType(String runtimeType) {
+        this.runtimeType = runtimeType;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.loader.JavetLibLoader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The benchmark result is one record of the structured result file.
+ * Suite specific figures which do not fit the common fields go to the metrics.
+ */
+public final class BenchmarkResult {
+    /**
+     * The Javet version is read at runtime because JavetLibLoader.LIB_VERSION is a compile-time constant
+     * which would be inlined and would not match the Javet jar on the classpath, e.g. in the version matrix.
+     */
+    public static final String JAVET_VERSION = getJavetVersion();
+    private final Map<String, Object> metrics;
+    private final String name;
+    private final Map<String, Object> params;
+    private final String runtimeType;
+    private long allocatedBytes;
+    private long bytesPerOperation;
+    private long elapsedNanos;
+    private long gcCount;
+    private long gcTime;
+    private LatencyRecorder latencyRecorder;
+    private long operationCount;
+    private double[] samples;
+    private long v8UsedHeapSizeAfter;
+    private long v8UsedHeapSizeBefore;
+
+    public BenchmarkResult(String name, String runtimeType) {
+        this.name = Objects.requireNonNull(name);
+        this.runtimeType = Objects.requireNonNull(runtimeType);
+        allocatedBytes = -1;
+        bytesPerOperation = 0;
+        elapsedNanos = 0;
+        gcCount = -1;
+        gcTime = -1;
+        latencyRecorder = null;
+        metrics = new LinkedHashMap<>();
+        operationCount = 0;
+        params = new LinkedHashMap<>();
+        samples = new double[0];
+        v8UsedHeapSizeAfter = -1;
+        v8UsedHeapSizeBefore = -1;
+    }
+
+    private static String getJavetVersion() {
+        try {
+            return String.valueOf(JavetLibLoader.class.getField("LIB_VERSION").get(null));
+        } catch (ReflectiveOperationException e) {
+            return JavetLibLoader.LIB_VERSION;
+        }
+    }
+
+    static void appendJson(StringBuilder stringBuilder, Object value) {
+        if (value == null) {
+            stringBuilder.append("null");
+        } else if (value instanceof Double || value instanceof Float) {
+            final double doubleValue = ((Number) value).doubleValue();
+            if (Double.isFinite(doubleValue)) {
+                stringBuilder.append(doubleValue);
+            } else {
+                stringBuilder.append("null");
+            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            stringBuilder.append(value);
+        } else if (value instanceof Map) {
+            stringBuilder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    stringBuilder.append(',');
+                }
+                first = false;
+                appendJsonString(stringBuilder, String.valueOf(entry.getKey()));
+                stringBuilder.append(':');
+                appendJson(stringBuilder, entry.getValue());
+            }
+            stringBuilder.append('}');
+        } else if (value instanceof Collection) {
+            stringBuilder.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) {
+                    stringBuilder.append(',');
+                }
+                first = false;
+                appendJson(stringBuilder, item);
+            }
+            stringBuilder.append(']');
+        } else if (value instanceof Object[]) {
+            appendJson(stringBuilder, Arrays.asList((Object[]) value));
+        } else if (value instanceof double[]) {
+            stringBuilder.append('[');
+            final double[] doubleValues = (double[]) value;
+            for (int i = 0; i < doubleValues.length; i++) {
+                if (i > 0) {
+                    stringBuilder.append(',');
+                }
+                appendJson(stringBuilder, doubleValues[i]);
+            }
+            stringBuilder.append(']');
+        } else {
+            appendJsonString(stringBuilder, value.toString());
+        }
+    }
+
+    static void appendJsonString(StringBuilder stringBuilder, String value) {
+        stringBuilder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    stringBuilder.append("\\\"");
+                    break;
+                case '\\':
+                    stringBuilder.append("\\\\");
+                    break;
+                case '\n':
+                    stringBuilder.append("\\n");
+                    break;
+                case '\r':
+                    stringBuilder.append("\\r");
+                    break;
+                case '\t':
+                    stringBuilder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        stringBuilder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        stringBuilder.append(c);
+                    }
+                    break;
+            }
+        }
+        stringBuilder.append('"');
+    }
+
+    public BenchmarkResult addMetric(String key, Object value) {
+        metrics.put(key, value);
+        return this;
+    }
+
+    public BenchmarkResult addParam(String key, Object value) {
+        params.put(key, value);
+        return this;
+    }
+
+    public Map<String, Object> getMetrics() {
+        return metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public String getRuntimeType() {
+        return runtimeType;
+    }
+
+    public long getBytesPerOperation() {
+        return bytesPerOperation;
+    }
+
+    public double getMegabytesPerSecond() {
+        return getTps() * bytesPerOperation / 1_000_000D;
+    }
+
+    public double getTps() {
+        return elapsedNanos > 0 ? operationCount * 1_000_000_000D / elapsedNanos : 0D;
+    }
+
+    public BenchmarkResult setAllocation(AllocationRecorder allocationRecorder) {
+        allocatedBytes = allocationRecorder.getAllocatedBytes();
+        gcCount = allocationRecorder.getGcCount();
+        gcTime = allocationRecorder.getGcTime();
+        if (allocationRecorder.getV8HeapStatisticsBefore() != null) {
+            v8UsedHeapSizeBefore = allocationRecorder.getV8HeapStatisticsBefore().getUsedHeapSize();
+        }
+        if (allocationRecorder.getV8HeapStatisticsAfter() != null) {
+            v8UsedHeapSizeAfter = allocationRecorder.getV8HeapStatisticsAfter().getUsedHeapSize();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the payload bytes moved by one operation so that MB/s can be derived from the TPS.
+     *
+     * @param bytesPerOperation the bytes per operation
+     * @return the benchmark result
+     */
+    public BenchmarkResult setBytesPerOperation(long bytesPerOperation) {
+        this.bytesPerOperation = bytesPerOperation;
+        return this;
+    }
+
+    public BenchmarkResult setLatency(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+        return this;
+    }
+
+    /**
+     * Sets the TPS samples that the regression gate uses for its statistical test.
+     *
+     * @param samples the TPS samples
+     * @return the benchmark result
+     */
+    public BenchmarkResult setSamples(double[] samples) {
+        this.samples = Objects.requireNonNull(samples);
+        return this;
+    }
+
+    public BenchmarkResult setThroughput(long operationCount, long elapsedNanos) {
+        this.operationCount = operationCount;
+        this.elapsedNanos = elapsedNanos;
+        return this;
+    }
+
+    public String toJson(String runId, Map<String, Object> environment) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("runId", runId);
+        map.put("timestamp", System.currentTimeMillis());
+        map.put("benchmark", name);
+        map.put("runtimeType", runtimeType);
+        map.put("javetVersion", JAVET_VERSION);
+        map.put("params", params);
+        map.put("operations", operationCount);
+        map.put("elapsedNanos", elapsedNanos);
+        map.put("tps", getTps());
+        map.put("samples", samples);
+        if (bytesPerOperation > 0) {
+            map.put("bytesPerOperation", bytesPerOperation);
+            map.put("megabytesPerSecond", getMegabytesPerSecond());
+        }
+        if (latencyRecorder != null && latencyRecorder.getCount() > 0) {
+            Map<String, Object> latencyMap = new LinkedHashMap<>();
+            latencyMap.put("mean", latencyRecorder.getMean());
+            latencyMap.put("p50", latencyRecorder.getValueAtPercentile(50D));
+            latencyMap.put("p90", latencyRecorder.getValueAtPercentile(90D));
+            latencyMap.put("p99", latencyRecorder.getValueAtPercentile(99D));
+            latencyMap.put("p99.9", latencyRecorder.getValueAtPercentile(99.9D));
+            latencyMap.put("max", latencyRecorder.getMax());
+            map.put("latencyNanos", latencyMap);
+        }
+        if (allocatedBytes >= 0) {
+            Map<String, Object> allocationMap = new LinkedHashMap<>();
+            allocationMap.put("bytes", allocatedBytes);
+            allocationMap.put("bytesPerOperation", operationCount > 0 ? (double) allocatedBytes / operationCount : 0D);
+            allocationMap.put("gcCount", gcCount);
+            allocationMap.put("gcTimeMillis", gcTime);
+            allocationMap.put("v8UsedHeapSizeBefore", v8UsedHeapSizeBefore);
+            allocationMap.put("v8UsedHeapSizeAfter", v8UsedHeapSizeAfter);
+            map.put("allocation", allocationMap);
+        }
+        map.put("metrics", metrics);
+        map.put("environment", environment);
+        StringBuilder stringBuilder = new StringBuilder();
+        appendJson(stringBuilder, map);
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.enums.JSRuntimeType;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+
+/**
+ * The cold start probe runs in a fresh JVM so that the native library loading
+ * and the V8 platform initialization are part of the first runtime creation.
+ * It prints one line: ColdStart createNanos firstCallNanos rssBefore rssAfter.
+ * <p>
+ * Usage: ColdStartProbe V8|Node
+ */
+public final class ColdStartProbe {
+    public static final String PREFIX = "ColdStart ";
+
+    private ColdStartProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final JSRuntimeType jsRuntimeType = JSRuntimeType.valueOf(args[0]);
+        final long rssBefore = ProcessMemory.getResidentSetSize();
+        final long startTime = System.nanoTime();
+        try (V8Runtime v8Runtime = V8Host.getInstance(jsRuntimeType).createV8Runtime()) {
+            final long createdTime = System.nanoTime();
+            v8Runtime.getExecutor("1 + 1").executeInteger();
+            final long firstCallTime = System.nanoTime();
+            System.out.println(PREFIX + (createdTime - startTime) + " " + (firstCallTime - createdTime) + " "
+                    + rssBefore + " " + ProcessMemory.getResidentSetSize());
+        }
+    }
+}
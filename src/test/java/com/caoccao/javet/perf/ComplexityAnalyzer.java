@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The complexity analyzer collects the time per pass of the size sweep tests
+ * and fits a power law time = c * n^k per benchmark and runtime type.
+ * A benchmark is flagged as super-linear if k of the whole sweep or of its last segment
+ * exceeds the threshold which defaults to 1.2 and can be overridden by system property
+ * javet.perf.complexity.threshold.
+ * The sizes default to 10 ... 1,000,000 and can be overridden by system property javet.perf.sizes.
+ */
+public final class ComplexityAnalyzer {
+    public static final String PROPERTY_COMPLEXITY_THRESHOLD = "javet.perf.complexity.threshold";
+    public static final String PROPERTY_SIZES = "javet.perf.sizes";
+    public static final long TOTAL_ELEMENT_COUNT = 1_000_000L;
+    private final Logger logger;
+    private final Map<String, NavigableMap<Integer, Double>> pointsMap;
+    private final double threshold;
+
+    public ComplexityAnalyzer() {
+        logger = LoggerFactory.getLogger(getClass());
+        pointsMap = new TreeMap<>();
+        threshold = Double.parseDouble(System.getProperty(PROPERTY_COMPLEXITY_THRESHOLD, "1.2"));
+    }
+
+    /**
+     * Gets the loop count so that every size processes roughly the same number of elements.
+     *
+     * @param size the size
+     * @return the loop count
+     */
+    public static long getLoopCount(int size) {
+        return Math.max(3L, TOTAL_ELEMENT_COUNT / size);
+    }
+
+    public static List<Integer> getSizes() {
+        return Arrays.stream(System.getProperty(PROPERTY_SIZES, "10,100,1000,10000,100000,1000000").split(","))
+                .map(String::trim)
+                .filter(size -> !size.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    public synchronized void add(BenchmarkResult benchmarkResult, int size) {
+        final double tps = benchmarkResult.getTps();
+        if (tps > 0) {
+            pointsMap.computeIfAbsent(
+                    benchmarkResult.getName() + "\t" + benchmarkResult.getRuntimeType(),
+                    key -> new TreeMap<>()).put(size, 1_000_000_000D / tps);
+        }
+    }
+
+    /**
+     * Fits the scaling curves, logs them and appends them to the result sink.
+     */
+    public synchronized void analyze() {
+        for (Map.Entry<String, NavigableMap<Integer, Double>> entry : pointsMap.entrySet()) {
+            final NavigableMap<Integer, Double> points = entry.getValue();
+            if (points.size() < 2) {
+                continue;
+            }
+            final String[] keys = entry.getKey().split("\t");
+            final String name = keys[0];
+            final String runtimeType = keys[1];
+            SimpleRegression simpleRegression = new SimpleRegression();
+            points.forEach((size, nanosPerPass) -> simpleRegression.addData(Math.log(size), Math.log(nanosPerPass)));
+            final double exponent = simpleRegression.getSlope();
+            final Map.Entry<Integer, Double> lastPoint = points.lastEntry();
+            final Map.Entry<Integer, Double> secondLastPoint = points.lowerEntry(lastPoint.getKey());
+            final double lastExponent = Math.log(lastPoint.getValue() / secondLastPoint.getValue())
+                    / Math.log((double) lastPoint.getKey() / secondLastPoint.getKey());
+            final boolean superLinear = exponent > threshold || lastExponent > threshold;
+            ResultSink.getInstance().write(new BenchmarkResult(name, runtimeType)
+                    .addParam("sweep", "size")
+                    .addMetric("sizes", new ArrayList<>(points.keySet()))
+                    .addMetric("nanosPerPass", new ArrayList<>(points.values()))
+                    .addMetric("exponent", exponent)
+                    .addMetric("lastExponent", lastExponent)
+                    .addMetric("rSquare", simpleRegression.getRSquare())
+                    .addMetric("superLinear", superLinear));
+            final String message = "[{}] Complexity {}: time per pass ~ n^{} (R² {}), last segment ~ n^{}.";
+            final Object[] arguments = new Object[]{
+                    StringUtils.leftPad(runtimeType, 4), name,
+                    String.format("%.2f", exponent),
+                    String.format("%.3f", simpleRegression.getRSquare()),
+                    String.format("%.2f", lastExponent)};
+            if (superLinear) {
+                logger.warn(message + " It is super-linear.", arguments);
+            } else {
+                logger.info(message, arguments);
+            }
+        }
+        pointsMap.clear();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * The JFR recorder records one test case and writes the recording and flame graph ready collapsed stacks
+ * to the jfr directory next to the result file.
+ * There is one collapsed stack file for the whole test case and one per measured window.
+ * A measured window is a measure phase event and the samples of all threads inside the window are counted,
+ * so that the worker threads of multi-threaded benchmarks are included. Samples of unrelated threads
+ * that happen to run or sit in native code during the window are included as well.
+ * The samples of threads in native code, e.g. JNI calls into V8, end with a [native] frame.
+ * It is disabled by default and is enabled by system property javet.perf.jfr=true.
+ * The JFR settings default to profile and can be overridden by javet.perf.jfr.settings.
+ */
+public final class JfrRecorder {
+    public static final String PROPERTY_JFR = "javet.perf.jfr";
+    public static final String PROPERTY_JFR_SETTINGS = "javet.perf.jfr.settings";
+    private static final String EVENT_EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String EVENT_NATIVE_METHOD_SAMPLE = "jdk.NativeMethodSample";
+    private static final String NATIVE_FRAME = "[native]";
+    private final Path directoryPath;
+    private final Logger logger;
+    private final String name;
+    private Recording recording;
+
+    public JfrRecorder(String name) {
+        directoryPath = ResultSink.getInstance().getResultFilePath().toAbsolutePath().getParent().resolve("jfr");
+        logger = LoggerFactory.getLogger(getClass());
+        this.name = toFileName(name);
+        recording = null;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY_JFR);
+    }
+
+    static String toCollapsedStack(RecordedStackTrace recordedStackTrace, boolean isNative) {
+        final List<RecordedFrame> recordedFrames = recordedStackTrace.getFrames();
+        final StringBuilder stringBuilder = new StringBuilder();
+        // The frames are from the top to the bottom, the collapsed stack is from the bottom to the top.
+        for (int i = recordedFrames.size() - 1; i >= 0; i--) {
+            RecordedMethod recordedMethod = recordedFrames.get(i).getMethod();
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(';');
+            }
+            stringBuilder.append(recordedMethod.getType().getName()).append('.').append(recordedMethod.getName());
+        }
+        if (isNative) {
+            stringBuilder.append(';').append(NATIVE_FRAME);
+        }
+        return stringBuilder.toString();
+    }
+
+    static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._=-]+", "_");
+    }
+
+    public void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Starts the recording if JFR is enabled.
+     *
+     * @throws IOException    the IO exception
+     * @throws ParseException the parse exception
+     */
+    public void start() throws IOException, ParseException {
+        if (isEnabled() && recording == null) {
+            recording = new Recording(Configuration.getConfiguration(
+                    System.getProperty(PROPERTY_JFR_SETTINGS, "profile")));
+            recording.setName(name);
+            recording.setToDisk(true);
+            recording.start();
+        }
+    }
+
+    /**
+     * Stops the recording, dumps it and writes the collapsed stacks.
+     *
+     * @return the path of the recording or null if nothing is recorded
+     * @throws IOException the IO exception
+     */
+    public Path stop() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        try {
+            recording.stop();
+            Files.createDirectories(directoryPath);
+            final Path jfrPath = directoryPath.resolve(name + ".jfr");
+            recording.dump(jfrPath);
+            writeCollapsedStacks(jfrPath);
+            logger.info("JFR recording of {} is written to {}.", name, jfrPath);
+            return jfrPath;
+        } finally {
+            close();
+        }
+    }
+
+    private void writeCollapsedStacks(Path jfrPath) throws IOException {
+        final List<RecordedEvent> measureEvents = new ArrayList<>();
+        final List<RecordedEvent> sampleEvents = new ArrayList<>();
+        try (RecordingFile recordingFile = new RecordingFile(jfrPath)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent recordedEvent = recordingFile.readEvent();
+                final String eventName = recordedEvent.getEventType().getName();
+                if (BenchmarkPhaseEvent.NAME.equals(eventName)) {
+                    if (BenchmarkPhaseEvent.PHASE_MEASURE.equals(recordedEvent.getString("phase"))) {
+                        measureEvents.add(recordedEvent);
+                    }
+                } else if ((EVENT_EXECUTION_SAMPLE.equals(eventName) || EVENT_NATIVE_METHOD_SAMPLE.equals(eventName))
+                        && recordedEvent.getStackTrace() != null) {
+                    sampleEvents.add(recordedEvent);
+                }
+            }
+        }
+        writeCollapsedStacks(directoryPath.resolve(name + ".collapsed"), sampleEvents, null);
+        for (int i = 0; i < measureEvents.size(); i++) {
+            RecordedEvent measureEvent = measureEvents.get(i);
+            final String fileName = toFileName(name + "." + i + "." + measureEvent.getString("benchmark")
+                    + "." + measureEvent.getString("runtimeType"));
+            writeCollapsedStacks(directoryPath.resolve(fileName + ".collapsed"), sampleEvents, measureEvent);
+        }
+    }
+
+    private void writeCollapsedStacks(Path collapsedPath, List<RecordedEvent> sampleEvents, RecordedEvent window)
+            throws IOException {
+        final Map<String, Long> countMap = new TreeMap<>();
+        for (RecordedEvent sampleEvent : sampleEvents) {
+            if (window != null) {
+                final Instant startTime = sampleEvent.getStartTime();
+                if (startTime.isBefore(window.getStartTime()) || startTime.isAfter(window.getEndTime())) {
+                    continue;
+                }
+            }
+            final boolean isNative = EVENT_NATIVE_METHOD_SAMPLE.equals(sampleEvent.getEventType().getName());
+            countMap.merge(toCollapsedStack(sampleEvent.getStackTrace(), isNative), 1L, Long::sum);
+        }
+        final List<String> lines = new ArrayList<>(countMap.size());
+        countMap.forEach((stack, count) -> lines.add(stack + " " + count));
+        Files.write(collapsedPath, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import java.util.Arrays;
+
+/**
+ * The latency recorder is a log-linear histogram in the style of HdrHistogram.
+ * Values below 256ns are recorded exactly, larger values are recorded in 128 sub-buckets
+ * per power of 2 so that the relative error is below 1%.
+ * It is not thread-safe and is designed to be reset and reused by one thread.
+ */
+public final class LatencyRecorder {
+    private static final int LINEAR_BUCKET_COUNT = 256;
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT =
+            LINEAR_BUCKET_COUNT + (Long.SIZE - 1 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKET_COUNT;
+    private final long[] counts;
+    private long count;
+    private long max;
+    private long min;
+    private long sum;
+
+    public LatencyRecorder() {
+        counts = new long[BUCKET_COUNT];
+        reset();
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return LINEAR_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT
+                + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long getBucketUpperBound(int index) {
+        if (index < LINEAR_BUCKET_COUNT) {
+            return index;
+        }
+        final int offset = index - LINEAR_BUCKET_COUNT;
+        final int magnitude = offset / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final long lowerBound = ((long) (offset % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0D : (double) sum / count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Gets the value at the given percentile.
+     * The returned value is the upper bound of the bucket capped by the recorded max.
+     *
+     * @param percentile the percentile from 0 to 100
+     * @return the value at percentile
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long targetCount = Math.max(1L, (long) Math.ceil(percentile / 100D * count));
+        long accumulatedCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulatedCount += counts[i];
+            if (accumulatedCount >= targetCount) {
+                return Math.min(getBucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        ++counts[getBucketIndex(value)];
+        ++count;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+        if (value < min) {
+            min = value;
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        max = Long.MIN_VALUE;
+        min = Long.MAX_VALUE;
+        sum = 0;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The process memory reads the resident set size of the current process.
+ * It is only available on Linux, other platforms get -1.
+ */
+public final class ProcessMemory {
+    private static final Path PROC_SELF_STATUS_PATH = Path.of("/proc/self/status");
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * Gets the resident set size in bytes.
+     *
+     * @return the resident set size in bytes, or -1 if it is not available
+     */
+    public static long getResidentSetSize() {
+        if (Files.isReadable(PROC_SELF_STATUS_PATH)) {
+            try {
+                for (String line : Files.readAllLines(PROC_SELF_STATUS_PATH, StandardCharsets.UTF_8)) {
+                    if (line.startsWith("VmRSS:")) {
+                        final String[] tokens = line.substring(6).trim().split("\\s+");
+                        return Long.parseLong(tokens[0]) * 1024L;
+                    }
+                }
+            } catch (IOException | NumberFormatException ignored) {
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.inference.TTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regression gate compares the latest run in the current result file against a baseline.
+ * The baseline is either the previous runs in a result file of the same machine, by default the current result file,
+ * or the reportMap of a version in docs/index.html.
+ * A benchmark is regressed or improved only if the change exceeds the threshold
+ * and the t-test on the TPS of the runs is significant, otherwise it is within noise.
+ * The TPS windows within a run are autocorrelated, so the significance is based on one TPS per run.
+ * <p>
+ * The reportMap has one figure per benchmark measured on another machine,
+ * so it is informational only and never fails the gate.
+ * <p>
+ * Usage: RegressionGate current.jsonl baseline(.jsonl|.html) [baselineVersion] [thresholdPercent] [alpha]
+ */
+public final class RegressionGate {
+    /**
+     * The size sweep records the historical default size as a param,
+     * so it is dropped from the key to stay comparable with docs/index.html.
+     */
+    private static final Map<String, Object> HISTORICAL_PARAMS = Map.of("size", 1000);
+    /**
+     * The baseline is made of the latest previous runs only, so that the ancient runs do not dilute it.
+     */
+    private static final int MAX_BASELINE_RUN_COUNT = 10;
+    private static final Pattern PATTERN_REPORT_MAP = Pattern.compile(
+            "^\\s*reportMap\\['([^']+)'\\]\\s*=\\s*(\\{.*\\});\\s*$", Pattern.MULTILINE);
+    private final double alpha;
+    private final Logger logger;
+    private final double threshold;
+    private final V8Runtime v8Runtime;
+
+    public RegressionGate(V8Runtime v8Runtime, double threshold, double alpha) {
+        this.alpha = alpha;
+        logger = LoggerFactory.getLogger(getClass());
+        this.threshold = threshold;
+        this.v8Runtime = Objects.requireNonNull(v8Runtime);
+    }
+
+    static String getKey(String benchmark, String runtimeType, Object params) {
+        Map<String, Object> sortedParams = new TreeMap<>();
+        if (params != null) {
+            ((Map<?, ?>) params).forEach((key, value) -> {
+                Object historicalValue = HISTORICAL_PARAMS.get(key.toString());
+                if (historicalValue == null || !historicalValue.toString().equals(value.toString())) {
+                    sortedParams.put(key.toString(), value);
+                }
+            });
+        }
+        StringBuilder stringBuilder = new StringBuilder();
+        BenchmarkResult.appendJson(stringBuilder, sortedParams);
+        return benchmark + " [" + runtimeType + "] " + stringBuilder;
+    }
+
+    private static Map<String, double[]> getSamplesMap(List<Map<String, Double>> runs) {
+        Map<String, List<Double>> tpsListMap = new HashMap<>();
+        for (Map<String, Double> run : runs) {
+            run.forEach((key, tps) -> tpsListMap.computeIfAbsent(key, k -> new ArrayList<>()).add(tps));
+        }
+        Map<String, double[]> samplesMap = new HashMap<>();
+        tpsListMap.forEach((key, tpsList) ->
+                samplesMap.put(key, tpsList.stream().mapToDouble(Double::doubleValue).toArray()));
+        return samplesMap;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: RegressionGate current.jsonl baseline(.jsonl|.html) " +
+                    "[baselineVersion] [thresholdPercent] [alpha]");
+            System.exit(2);
+        }
+        final Path currentPath = Path.of(args[0]);
+        final Path baselinePath = Path.of(args[1]);
+        final String baselineVersion = args.length > 2 && StringUtils.isNotBlank(args[2]) ? args[2] : null;
+        final double threshold = args.length > 3 ? Double.parseDouble(args[3]) / 100D : 0.1D;
+        final double alpha = args.length > 4 ? Double.parseDouble(args[4]) : 0.05D;
+        final int regressionCount;
+        try (V8Runtime v8Runtime = V8Host.getV8Instance().createV8Runtime()) {
+            RegressionGate regressionGate = new RegressionGate(v8Runtime, threshold, alpha);
+            LinkedHashMap<Object, Map<String, Double>> currentRuns = regressionGate.readResultFile(currentPath);
+            final Object currentRunId = new ArrayList<>(currentRuns.keySet()).get(currentRuns.size() - 1);
+            regressionGate.logger.info("Run {} is loaded from {}.", currentRunId, currentPath);
+            Map<String, double[]> currentSamplesMap = getSamplesMap(List.of(currentRuns.get(currentRunId)));
+            if (baselinePath.toString().endsWith(".html")) {
+                regressionCount = regressionGate.compare(
+                        currentSamplesMap, regressionGate.readReportMap(baselinePath, baselineVersion), true);
+            } else {
+                LinkedHashMap<Object, Map<String, Double>> baselineRuns = Files.exists(baselinePath)
+                        ? regressionGate.readResultFile(baselinePath)
+                        : new LinkedHashMap<>();
+                baselineRuns.remove(currentRunId);
+                List<Map<String, Double>> runs = new ArrayList<>(baselineRuns.values());
+                runs = runs.subList(Math.max(0, runs.size() - MAX_BASELINE_RUN_COUNT), runs.size());
+                regressionGate.logger.info("{} previous run(s) are the baseline in {}.", runs.size(), baselinePath);
+                regressionCount = regressionGate.compare(currentSamplesMap, getSamplesMap(runs), false);
+            }
+        }
+        if (regressionCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the current TPS per run against the baseline TPS per run and logs a verdict per benchmark.
+     *
+     * @param currentSamplesMap  the current samples map
+     * @param baselineSamplesMap the baseline samples map
+     * @param informational      true if the verdicts are not counted, e.g. for a baseline of another machine
+     * @return the regression count
+     */
+    public int compare(
+            Map<String, double[]> currentSamplesMap, Map<String, double[]> baselineSamplesMap,
+            boolean informational) {
+        TTest tTest = new TTest();
+        int regressionCount = 0;
+        for (Map.Entry<String, double[]> entry : new TreeMap<>(currentSamplesMap).entrySet()) {
+            final String key = entry.getKey();
+            final double[] baselineSamples = baselineSamplesMap.get(key);
+            if (baselineSamples == null) {
+                logger.info("[   NEW] {}", key);
+                continue;
+            }
+            final double[] currentSamples = entry.getValue();
+            final double currentMean = StatUtils.mean(currentSamples);
+            final double baselineMean = StatUtils.mean(baselineSamples);
+            final double change = (currentMean - baselineMean) / baselineMean;
+            double pValue = Double.NaN;
+            if (currentSamples.length >= 2 && baselineSamples.length >= 2) {
+                pValue = tTest.tTest(currentSamples, baselineSamples);
+            } else if (currentSamples.length >= 2) {
+                pValue = tTest.tTest(baselineMean, currentSamples);
+            } else if (baselineSamples.length >= 2) {
+                pValue = tTest.tTest(currentMean, baselineSamples);
+            }
+            // Without enough samples for a t-test, the threshold alone decides.
+            final boolean significant = Double.isNaN(pValue) || pValue < alpha;
+            final String verdict;
+            if (significant && change < -threshold) {
+                verdict = "REGRESS";
+                if (!informational) {
+                    ++regressionCount;
+                }
+            } else if (significant && change > threshold) {
+                verdict = "IMPROVE";
+            } else {
+                verdict = "  NOISE";
+            }
+            logger.info("[{}] {}: {} -> {} TPS ({}%, p = {}).",
+                    verdict, key, (long) baselineMean, (long) currentMean,
+                    String.format("%+.1f", change * 100D),
+                    Double.isNaN(pValue) ? "n/a" : String.format("%.4f", pValue));
+        }
+        if (informational) {
+            logger.info("The verdicts are informational only because the baseline is from another machine.");
+        } else {
+            logger.info("{} regression(s) found with threshold {}% and alpha {}.",
+                    regressionCount, threshold * 100D, alpha);
+        }
+        return regressionCount;
+    }
+
+    private Map<String, Object> parseJson(String json) throws Exception {
+        return v8Runtime.getExecutor("(" + json + ")").executeObject();
+    }
+
+    /**
+     * Reads the reportMap of a version from docs/index.html. Each benchmark has one figure only.
+     *
+     * @param htmlPath the html path
+     * @param version  the version, or null for the last version
+     * @return the samples map
+     * @throws Exception the exception
+     */
+    public Map<String, double[]> readReportMap(Path htmlPath, String version) throws Exception {
+        final String content = Files.readString(htmlPath, StandardCharsets.UTF_8);
+        Matcher matcher = PATTERN_REPORT_MAP.matcher(content);
+        String reportMapJson = null;
+        while (matcher.find()) {
+            if (version == null || version.equals(matcher.group(1))) {
+                reportMapJson = matcher.group(2);
+                logger.info("Baseline is version {} in {}.", matcher.group(1), htmlPath);
+            }
+        }
+        if (reportMapJson == null) {
+            throw new IOException("Version " + version + " is not found in " + htmlPath + ".");
+        }
+        Map<String, double[]> samplesMap = new HashMap<>();
+        Map<String, Object> reportMap = parseJson(reportMapJson);
+        for (Map.Entry<String, Object> entry : reportMap.entrySet()) {
+            for (Map.Entry<?, ?> typedEntry : ((Map<?, ?>) entry.getValue()).entrySet()) {
+                samplesMap.put(
+                        getKey(entry.getKey(), typedEntry.getKey().toString(), null),
+                        new double[]{Double.parseDouble(typedEntry.getValue().toString())});
+            }
+        }
+        return samplesMap;
+    }
+
+    /**
+     * Reads the TPS of every run in a result file in the order of the runs.
+     *
+     * @param resultPath the result path
+     * @return the map of run id to the map of key to TPS
+     * @throws Exception the exception
+     */
+    public LinkedHashMap<Object, Map<String, Double>> readResultFile(Path resultPath) throws Exception {
+        LinkedHashMap<Object, Map<String, Double>> runs = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(resultPath, StandardCharsets.UTF_8)) {
+            if (StringUtils.isNotBlank(line)) {
+                Map<String, Object> result = parseJson(line);
+                final double tps = ((Number) result.get("tps")).doubleValue();
+                // Results without throughput, e.g. complexity fits, are not comparable.
+                if (tps > 0) {
+                    runs.computeIfAbsent(result.get("runId"), runId -> new HashMap<>()).put(
+                            getKey(result.get("benchmark").toString(), result.get("runtimeType").toString(),
+                                    result.get("params")),
+                            tps);
+                }
+            }
+        }
+        if (runs.isEmpty()) {
+            throw new IOException(resultPath + " has no results.");
+        }
+        return runs;
+    }
+}
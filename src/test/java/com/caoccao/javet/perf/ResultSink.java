@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The result sink appends one JSON line per benchmark result to the result file
+ * as soon as the benchmark is finished.
+ * The result file defaults to build/reports/perf/results.jsonl
+ * and can be overridden by system property javet.perf.result.file.
+ * The run id can be set by system property javet.perf.run.id.
+ */
+public final class ResultSink {
+    public static final String PROPERTY_RESULT_FILE = "javet.perf.result.file";
+    public static final String PROPERTY_RUN_ID = "javet.perf.run.id";
+    private static final ResultSink INSTANCE = new ResultSink();
+    private final Map<String, Object> environment;
+    private final Logger logger;
+    private final Path resultFilePath;
+    private final String runId;
+
+    private ResultSink() {
+        logger = LoggerFactory.getLogger(getClass());
+        resultFilePath = Path.of(System.getProperty(PROPERTY_RESULT_FILE, "build/reports/perf/results.jsonl"));
+        runId = System.getProperty(PROPERTY_RUN_ID, UUID.randomUUID().toString());
+        environment = Collections.unmodifiableMap(createEnvironment());
+    }
+
+    private static Map<String, Object> createEnvironment() {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("osName", System.getProperty("os.name"));
+        environment.put("osVersion", System.getProperty("os.version"));
+        environment.put("osArch", System.getProperty("os.arch"));
+        environment.put("cpuModel", getCpuModel());
+        environment.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        environment.put("maxMemory", Runtime.getRuntime().maxMemory());
+        environment.put("javaVendor", System.getProperty("java.vendor"));
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("vmName", System.getProperty("java.vm.name"));
+        environment.put("vmVersion", System.getProperty("java.vm.version"));
+        environment.put("hostName", getHostName());
+        return environment;
+    }
+
+    private static String getCpuModel() {
+        final String processorIdentifier = System.getenv("PROCESSOR_IDENTIFIER");
+        if (processorIdentifier != null) {
+            return processorIdentifier;
+        }
+        Path cpuInfoPath = Path.of("/proc/cpuinfo");
+        if (Files.isReadable(cpuInfoPath)) {
+            try {
+                List<String> lines = Files.readAllLines(cpuInfoPath, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    if (line.startsWith("model name")) {
+                        return line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        return "unknown";
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    public static ResultSink getInstance() {
+        return INSTANCE;
+    }
+
+    public Map<String, Object> getEnvironment() {
+        return environment;
+    }
+
+    public Path getResultFilePath() {
+        return resultFilePath;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Appends the benchmark result to the result file.
+     * Failures are logged instead of thrown so that a broken sink never fails a test case.
+     *
+     * @param benchmarkResult the benchmark result
+     */
+    public synchronized void write(BenchmarkResult benchmarkResult) {
+        final String line = benchmarkResult.toJson(runId, environment) + "\n";
+        try {
+            Path parentPath = resultFilePath.toAbsolutePath().getParent();
+            if (parentPath != null) {
+                Files.createDirectories(parentPath);
+            }
+            Files.writeString(
+                    resultFilePath, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            logger.error("Failed to write benchmark result to {}.", resultFilePath, e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The soak extension re-runs every test method of a benchmark for a configurable duration
+ * with the same runtimes, so that slow leaks and throughput decay become visible.
+ * It is disabled by default and is enabled by system property javet.perf.soak.duration
+ * in minutes or in the ISO-8601 duration format, e.g. 30 or PT2H.
+ * The sample interval defaults to 10 seconds and can be overridden by javet.perf.soak.sample.seconds.
+ * The threshold of the growth and the decay defaults to 10% and can be overridden by javet.perf.soak.threshold.
+ * The test fails on any flag if javet.perf.soak.fail is true.
+ */
+public final class SoakExtension implements InvocationInterceptor {
+    public static final String PROPERTY_SOAK_DURATION = "javet.perf.soak.duration";
+    public static final String PROPERTY_SOAK_FAIL = "javet.perf.soak.fail";
+    public static final String PROPERTY_SOAK_SAMPLE_SECONDS = "javet.perf.soak.sample.seconds";
+    public static final String PROPERTY_SOAK_THRESHOLD = "javet.perf.soak.threshold";
+    private final Logger logger;
+
+    public SoakExtension() {
+        logger = LoggerFactory.getLogger(getClass());
+    }
+
+    static Duration getDuration() {
+        final String duration = System.getProperty(PROPERTY_SOAK_DURATION);
+        if (duration == null || duration.isBlank()) {
+            return null;
+        }
+        return duration.startsWith("P")
+                ? Duration.parse(duration)
+                : Duration.ofMinutes(Long.parseLong(duration.trim()));
+    }
+
+    @Override
+    public void interceptTestMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        soak(invocation, invocationContext, extensionContext);
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        soak(invocation, invocationContext, extensionContext);
+    }
+
+    private void soak(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        final Duration duration = getDuration();
+        if (duration == null || !(invocationContext.getTarget().orElse(null) instanceof BaseTestJavet)) {
+            invocation.proceed();
+            return;
+        }
+        final BaseTestJavet baseTestJavet = (BaseTestJavet) invocationContext.getTarget().get();
+        final String name = extensionContext.getRequiredTestClass().getSimpleName()
+                + "." + extensionContext.getRequiredTestMethod().getName()
+                + " " + extensionContext.getDisplayName();
+        final double thresholdPercent = Double.parseDouble(System.getProperty(PROPERTY_SOAK_THRESHOLD, "10"));
+        SoakMonitor soakMonitor = new SoakMonitor(
+                baseTestJavet.runtimes,
+                Long.getLong(PROPERTY_SOAK_SAMPLE_SECONDS, 10L) * 1_000_000_000L,
+                thresholdPercent);
+        logger.info("Soak {} for {}.", name, duration);
+        final long endTime = System.nanoTime() + duration.toNanos();
+        // The first iteration must go through the invocation, the following ones are invoked directly.
+        invocation.proceed();
+        soakMonitor.onIteration();
+        final Method method = invocationContext.getExecutable();
+        method.setAccessible(true);
+        final Object[] arguments = invocationContext.getArguments().toArray();
+        while (System.nanoTime() < endTime) {
+            try {
+                method.invoke(baseTestJavet, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            soakMonitor.onIteration();
+        }
+        final List<String> flags = soakMonitor.analyze();
+        ResultSink.getInstance().write(new BenchmarkResult("Soak", "Mixed")
+                .addParam("test", name)
+                .addParam("durationSeconds", duration.getSeconds())
+                .addMetric("iterations", soakMonitor.getIterationCount())
+                .addMetric("flags", flags)
+                .addMetric("series", soakMonitor.getSeries()));
+        if (flags.isEmpty()) {
+            logger.info("Soak {}: {} iterations, no growth or decay is detected.",
+                    name, soakMonitor.getIterationCount());
+        } else {
+            for (String flag : flags) {
+                logger.warn("Soak {}: {}.", name, flag);
+            }
+            if (Boolean.getBoolean(PROPERTY_SOAK_FAIL)) {
+                throw new AssertionError("Soak " + name + " is flagged: " + String.join(", ", flags) + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
+import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The soak monitor samples the memory, the references and the throughput of a long-running test
+ * as a time series and flags the series that keep growing and the throughput that decays.
+ * Every sample runs a full GC in V8 and in Java so that only retained memory is compared.
+ * It is not thread-safe and is designed to be used by the test thread.
+ */
+public final class SoakMonitor {
+    public static final String SERIES_ITERATIONS_PER_SECOND = "iterationsPerSecond";
+    /**
+     * The minimum ratio of non-decreasing steps for a series to be treated as monotonic growth.
+     */
+    static final double MONOTONIC_RATIO = 0.8D;
+    private final List<String> flags;
+    private final MemoryMXBean memoryMXBean;
+    private final List<V8Runtime> runtimes;
+    private final long sampleIntervalNanos;
+    private final Map<String, List<Double>> seriesMap;
+    private final long startTime;
+    private final double thresholdPercent;
+    private long iterationCount;
+    private long lastSampleIterationCount;
+    private long lastSampleTime;
+
+    public SoakMonitor(List<V8Runtime> runtimes, long sampleIntervalNanos, double thresholdPercent) {
+        flags = new ArrayList<>();
+        memoryMXBean = ManagementFactory.getMemoryMXBean();
+        this.runtimes = runtimes;
+        this.sampleIntervalNanos = sampleIntervalNanos;
+        seriesMap = new LinkedHashMap<>();
+        this.thresholdPercent = thresholdPercent;
+        iterationCount = 0;
+        lastSampleIterationCount = 0;
+        startTime = System.nanoTime();
+        lastSampleTime = startTime;
+        sample(startTime);
+    }
+
+    static boolean isMonotonicGrowth(double[] values, double thresholdPercent) {
+        if (values.length < 3) {
+            return false;
+        }
+        int nonDecreasingCount = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] >= values[i - 1]) {
+                ++nonDecreasingCount;
+            }
+        }
+        final double first = values[0];
+        final double last = values[values.length - 1];
+        final boolean grown = first > 0
+                ? (last - first) * 100D / first > thresholdPercent
+                : last > first;
+        SimpleRegression simpleRegression = new SimpleRegression();
+        for (int i = 0; i < values.length; i++) {
+            simpleRegression.addData(i, values[i]);
+        }
+        return grown && simpleRegression.getSlope() > 0
+                && nonDecreasingCount >= MONOTONIC_RATIO * (values.length - 1);
+    }
+
+    static boolean isThroughputDecay(double[] values, double thresholdPercent) {
+        if (values.length < 4) {
+            return false;
+        }
+        final int quarterLength = values.length / 4;
+        final double firstMean = StatUtils.mean(values, 0, quarterLength);
+        final double lastMean = StatUtils.mean(values, values.length - quarterLength, quarterLength);
+        return firstMean > 0 && (firstMean - lastMean) * 100D / firstMean > thresholdPercent;
+    }
+
+    private static double[] toArray(List<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private void addSample(String name, double value) {
+        seriesMap.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+    }
+
+    /**
+     * Analyzes the time series and returns the flags.
+     *
+     * @return the flags, empty if nothing is suspicious
+     */
+    public List<String> analyze() {
+        flags.clear();
+        seriesMap.forEach((name, values) -> {
+            if (SERIES_ITERATIONS_PER_SECOND.equals(name)) {
+                // The first sample is the baseline before the first iteration.
+                final double[] throughputs = toArray(values.subList(Math.min(1, values.size()), values.size()));
+                if (isThroughputDecay(throughputs, thresholdPercent)) {
+                    flags.add(name + " decays by more than " + thresholdPercent + "%");
+                }
+            } else if (!"elapsedSeconds".equals(name)) {
+                // Reference and callback context counts must not grow at all.
+                final double threshold = name.endsWith("Count") ? 0D : thresholdPercent;
+                if (isMonotonicGrowth(toArray(values), threshold)) {
+                    flags.add(name + " grows monotonically by more than " + threshold + "%");
+                }
+            }
+        });
+        return flags;
+    }
+
+    public long getIterationCount() {
+        return iterationCount;
+    }
+
+    public Map<String, double[]> getSeries() {
+        Map<String, double[]> series = new LinkedHashMap<>();
+        seriesMap.forEach((name, values) -> series.put(name, toArray(values)));
+        return series;
+    }
+
+    /**
+     * Records one finished iteration and takes a sample if the sample interval is elapsed.
+     */
+    public void onIteration() {
+        ++iterationCount;
+        final long now = System.nanoTime();
+        if (now - lastSampleTime >= sampleIntervalNanos) {
+            sample(now);
+        }
+    }
+
+    private void sample(long now) {
+        addSample("elapsedSeconds", (now - startTime) / 1_000_000_000D);
+        addSample(SERIES_ITERATIONS_PER_SECOND, now > lastSampleTime
+                ? (iterationCount - lastSampleIterationCount) * 1_000_000_000D / (now - lastSampleTime)
+                : 0D);
+        for (V8Runtime runtime : runtimes) {
+            final String prefix = runtime.getJSRuntimeType().getName();
+            runtime.lowMemoryNotification();
+            V8HeapStatistics v8HeapStatistics = runtime.getV8HeapStatistics();
+            addSample(prefix + "UsedHeapSize", v8HeapStatistics.getUsedHeapSize());
+            addSample(prefix + "ExternalMemory", v8HeapStatistics.getExternalMemory());
+            addSample(prefix + "ReferenceCount", runtime.getReferenceCount());
+            addSample(prefix + "CallbackContextCount", runtime.getCallbackContextCount());
+        }
+        System.gc();
+        addSample("javaUsedHeapSize", memoryMXBean.getHeapMemoryUsage().getUsed());
+        addSample("residentSetSize", ProcessMemory.getResidentSetSize());
+        lastSampleIterationCount = iterationCount;
+        lastSampleTime = System.nanoTime();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValuePrimitive;
+import com.caoccao.javet.values.reference.IV8ValueArray;
+import com.caoccao.javet.values.reference.V8ValueArray;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueMap;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The batch property access tests read and write N fields of a V8ValueObject or a V8ValueMap per operation.
+ * Reads compare N single gets, forEach, getOwnPropertyNames plus lookup (object only)
+ * and a JS packed batch which returns all values in one array fetched by V8ValueArray.batchGet().
+ * Writes compare N single sets, the multi-pair set(keysAndValues) (object only)
+ * and a JS packed batch which receives all pairs in one array.
+ */
+public class TestBatchPropertyAccess extends BaseTestJavet {
+    protected static final int[] KEY_COUNTS = new int[]{1, 10, 100, 1000};
+    protected static final long TOTAL_ACCESS_COUNT = 200_000L;
+
+    protected static Stream<Arguments> getArguments() {
+        List<Arguments> argumentsList = new ArrayList<>();
+        for (ContainerType containerType : ContainerType.values()) {
+            for (ValueType valueType : ValueType.values()) {
+                for (int keyCount : KEY_COUNTS) {
+                    argumentsList.add(Arguments.of(containerType, valueType, keyCount));
+                }
+            }
+        }
+        return argumentsList.stream();
+    }
+
+    protected static void readValues(V8Value[] v8Values, int count) {
+        for (int i = 0; i < count; i++) {
+            ((V8ValuePrimitive<?>) v8Values[i]).getValue();
+        }
+    }
+
+    protected void logAccessResult(
+            V8Runtime runtime, String name, ContainerType containerType, ValueType valueType,
+            int keyCount, long loopCount) {
+        logResult(createResult(runtime, containerType.getName() + name)
+                .addParam("valueType", valueType.name())
+                .addParam("keys", keyCount), loopCount);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testRead(ContainerType containerType, ValueType valueType, int keyCount) {
+        final long loopCount = Math.max(10L, TOTAL_ACCESS_COUNT / keyCount);
+        final String[] keys = new String[keyCount];
+        final Object[] keysAndValues = new Object[keyCount * 2];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "k" + i;
+            keysAndValues[i * 2] = keys[i];
+            keysAndValues[i * 2 + 1] = valueType.createValue(i);
+        }
+        final V8Value[] v8Values = new V8Value[keyCount];
+        runtimes.forEach(runtime -> {
+            try (V8ValueObject container = containerType.createContainer(runtime);
+                 V8ValueArray v8ValueArrayKeys = runtime.createV8ValueArray();
+                 V8ValueFunction packFunction = runtime.createV8ValueFunction(containerType.getPackScript())) {
+                for (int i = 0; i < keyCount; i++) {
+                    container.set(keys[i], keysAndValues[i * 2 + 1]);
+                }
+                v8ValueArrayKeys.push((Object[]) keys);
+                // Single gets
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    if (valueType == ValueType.Int32) {
+                        for (int j = 0; j < keyCount; j++) {
+                            container.getInteger(keys[j]);
+                        }
+                    } else {
+                        for (int j = 0; j < keyCount; j++) {
+                            container.getString(keys[j]);
+                        }
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logAccessResult(runtime, "ReadWithSingleGets", containerType, valueType, keyCount, loopCount);
+                // forEach
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    container.forEach((V8Value key, V8Value value) -> ((V8ValuePrimitive<?>) value).getValue());
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logAccessResult(runtime, "ReadWithForEach", containerType, valueType, keyCount, loopCount);
+                // getOwnPropertyNames and lookup
+                if (containerType == ContainerType.PlainObject) {
+                    final V8Value[] v8ValueKeys = new V8Value[keyCount];
+                    time = startMeasurement(runtime);
+                    for (long i = 0; i < loopCount; i++) {
+                        try (IV8ValueArray iV8ValueArray = container.getOwnPropertyNames()) {
+                            final int count = iV8ValueArray.batchGet(v8ValueKeys, 0, keyCount);
+                            for (int j = 0; j < count; j++) {
+                                try (V8Value value = container.get(v8ValueKeys[j])) {
+                                    ((V8ValuePrimitive<?>) value).getValue();
+                                }
+                            }
+                        }
+                        time = recordLatency(time);
+                    }
+                    stopMeasurement(runtime);
+                    logAccessResult(runtime, "ReadWithOwnPropertyNames", containerType, valueType, keyCount, loopCount);
+                }
+                // JS packed batch
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8ValueArray v8ValueArrayValues = packFunction.call(null, container, v8ValueArrayKeys)) {
+                        readValues(v8Values, v8ValueArrayValues.batchGet(v8Values, 0, keyCount));
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logAccessResult(runtime, "ReadWithPackedBatch", containerType, valueType, keyCount, loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testWrite(ContainerType containerType, ValueType valueType, int keyCount) {
+        final long loopCount = Math.max(10L, TOTAL_ACCESS_COUNT / keyCount);
+        final String[] keys = new String[keyCount];
+        final Object[] values = new Object[keyCount];
+        final Object[] keysAndValues = new Object[keyCount * 2];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "k" + i;
+            values[i] = valueType.createValue(i);
+            keysAndValues[i * 2] = keys[i];
+            keysAndValues[i * 2 + 1] = values[i];
+        }
+        runtimes.forEach(runtime -> {
+            try (V8ValueObject container = containerType.createContainer(runtime);
+                 V8ValueFunction unpackFunction = runtime.createV8ValueFunction(containerType.getUnpackScript())) {
+                // Single sets
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    for (int j = 0; j < keyCount; j++) {
+                        container.set(keys[j], values[j]);
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logAccessResult(runtime, "WriteWithSingleSets", containerType, valueType, keyCount, loopCount);
+                // Multi-pair set
+                if (containerType == ContainerType.PlainObject) {
+                    time = startMeasurement(runtime);
+                    for (long i = 0; i < loopCount; i++) {
+                        container.set(keysAndValues);
+                        time = recordLatency(time);
+                    }
+                    stopMeasurement(runtime);
+                    logAccessResult(runtime, "WriteWithMultiPairSet", containerType, valueType, keyCount, loopCount);
+                }
+                // JS packed batch
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8ValueArray v8ValueArray = runtime.createV8ValueArray()) {
+                        v8ValueArray.push(keysAndValues);
+                        unpackFunction.callVoid(null, container, v8ValueArray);
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logAccessResult(runtime, "WriteWithPackedBatch", containerType, valueType, keyCount, loopCount);
+                assertEquals(values[keyCount - 1], valueType == ValueType.Int32
+                                ? container.getInteger(keys[keyCount - 1])
+                                : container.getString(keys[keyCount - 1]),
+                        "The last value should be written.");
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum ContainerType {
+        PlainObject("V8ValueObject"),
+        JsMap("V8ValueMap");
+
+        private final String name;
+
+        ContainerType(String name) {
+            this.name = name;
+        }
+
+        public V8ValueObject createContainer(V8Runtime v8Runtime) throws Exception {
+            return this == PlainObject ? v8Runtime.createV8ValueObject() : v8Runtime.createV8ValueMap();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPackScript() {
+            return this == PlainObject
+                    ? "(o, keys) => keys.map(k => o[k])"
+                    : "(m, keys) => keys.map(k => m.get(k))";
+        }
+
+        public String getUnpackScript() {
+            return this == PlainObject
+                    ? "(o, a) => { for (let i = 0; i < a.length; i += 2) o[a[i]] = a[i + 1]; }"
+                    : "(m, a) => { for (let i = 0; i < a.length; i += 2) m.set(a[i], a[i + 1]); }";
+        }
+    }
+
+    protected enum ValueType {
+        Int32,
+        Text;
+
+        public Object createValue(int index) {
+            return this == Int32 ? (Object) index : (Object) ("v" + index);
+        }
+    }
+}
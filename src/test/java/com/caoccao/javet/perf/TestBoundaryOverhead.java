@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueArray;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueMap;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The boundary overhead tests run every Java-driven operation twice in the same runtime:
+ * once from Java per operation and once in a JS loop that does the same operation without leaving V8.
+ * The JS loop is the cost of the engine, the difference is the cost of crossing the Java-native boundary.
+ * The JS loop is optimized by the JIT as a whole, so the engine cost is a lower bound.
+ */
+public class TestBoundaryOverhead extends BaseTestJavet {
+    protected static final int ARRAY_LENGTH = 1000;
+    protected static final int JS_BATCH_SIZE = 1000;
+
+    protected void runBoundary(String name, long loopCount, String jsLoopBody, IBoundaryWorkload workload) {
+        final long batchCount = Math.max(1L, loopCount / JS_BATCH_SIZE);
+        runtimes.forEach(runtime -> {
+            try (IBoundaryOperation operation = workload.prepare(runtime);
+                 V8ValueFunction jsLoopFunction = runtime.getExecutor(
+                         "(t, n) => { let s = 0; for (let i = 0; i < n; i++) { " + jsLoopBody + " } return s; }")
+                         .execute()) {
+                // Java
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    operation.run();
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                BenchmarkResult javaResult = logResult(createResult(runtime, name).addParam("side", "Java"), loopCount);
+                // JS
+                time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    jsLoopFunction.callVoid(null, operation.getTarget(), JS_BATCH_SIZE);
+                    time = recordLatency(time, JS_BATCH_SIZE);
+                }
+                stopMeasurement(runtime);
+                BenchmarkResult jsResult = logResult(
+                        createResult(runtime, name).addParam("side", "Js"), batchCount * JS_BATCH_SIZE);
+                // Decomposition
+                final double javaNanosPerOperation = 1_000_000_000D / javaResult.getTps();
+                final double engineNanosPerOperation = 1_000_000_000D / jsResult.getTps();
+                final double crossingNanosPerOperation = Math.max(0D, javaNanosPerOperation - engineNanosPerOperation);
+                ResultSink.getInstance().write(createResult(runtime, "BoundaryOverhead")
+                        .addParam("operation", name)
+                        .addMetric("javaNanosPerOperation", javaNanosPerOperation)
+                        .addMetric("engineNanosPerOperation", engineNanosPerOperation)
+                        .addMetric("crossingNanosPerOperation", crossingNanosPerOperation)
+                        .addMetric("crossingRatio", crossingNanosPerOperation / javaNanosPerOperation));
+                logger.info(
+                        "[{}] {} boundary: {}ns per call from Java, {}ns in engine, {}ns ({}%) crossing the boundary.",
+                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), name,
+                        String.format("%.1f", javaNanosPerOperation),
+                        String.format("%.1f", engineNanosPerOperation),
+                        String.format("%.1f", crossingNanosPerOperation),
+                        String.format("%.1f", crossingNanosPerOperation * 100D / javaNanosPerOperation));
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testArrayForEach() {
+        runBoundary("V8ValueArrayForEachWithUniConsumer", 2_000L, "t.forEach(v => { s += v; });", v8Runtime -> {
+            V8ValueArray v8ValueArray = v8Runtime.getExecutor(
+                    "Array.from({ length: " + ARRAY_LENGTH + " }, (_, i) => i)").execute();
+            return new IBoundaryOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueArray.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueArray;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueArray.forEach((V8ValueInteger value) -> value.getValue());
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testArrayGetInteger() {
+        runBoundary("V8ValueArrayGetInteger", 1_000_000L, "s += t[i % " + ARRAY_LENGTH + "];", v8Runtime -> {
+            V8ValueArray v8ValueArray = v8Runtime.getExecutor(
+                    "Array.from({ length: " + ARRAY_LENGTH + " }, (_, i) => i)").execute();
+            return new IBoundaryOperation() {
+                private int index = 0;
+
+                @Override
+                public void close() throws Exception {
+                    v8ValueArray.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueArray;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueArray.getInteger(index);
+                    index = (index + 1) % ARRAY_LENGTH;
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testFunctionCallWith20Arguments() {
+        final int argumentCount = 20;
+        runBoundary("V8ValueFunctionCallWith20Arguments", 400_000L,
+                "s += t(" + String.join(", ", Collections.nCopies(argumentCount, "1")) + ");", v8Runtime -> {
+                    V8ValueFunction v8ValueFunction = v8Runtime.createV8ValueFunction(
+                            "(function() { return arguments.length; })");
+                    V8Value[] arguments = new V8Value[argumentCount];
+                    Arrays.fill(arguments, v8Runtime.createV8ValueInteger(1));
+                    return new IBoundaryOperation() {
+                        @Override
+                        public void close() throws Exception {
+                            v8ValueFunction.close();
+                        }
+
+                        @Override
+                        public V8Value getTarget() {
+                            return v8ValueFunction;
+                        }
+
+                        @Override
+                        public void run() throws Exception {
+                            V8ValueInteger v8ValueInteger = v8ValueFunction.call(null, arguments);
+                            v8ValueInteger.getValue();
+                        }
+                    };
+                });
+    }
+
+    @Test
+    public void testFunctionCallWithoutArguments() {
+        runBoundary("V8ValueFunctionCallWithoutArguments", 1_000_000L, "s += t();", v8Runtime -> {
+            V8ValueFunction v8ValueFunction = v8Runtime.createV8ValueFunction(
+                    "(function() { return 1; })");
+            return new IBoundaryOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueFunction.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueFunction;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    V8ValueInteger v8ValueInteger = v8ValueFunction.call(null);
+                    v8ValueInteger.getValue();
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testMapGetInteger() {
+        runBoundary("V8ValueMapGetInteger", 1_000_000L, "s += t.get('a');", v8Runtime -> {
+            V8ValueMap v8ValueMap = v8Runtime.createV8ValueMap();
+            v8ValueMap.set("a", 1000);
+            return new IBoundaryOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueMap.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueMap;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueMap.getInteger("a");
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testObjectGetInteger() {
+        runBoundary("V8ValueObjectGetInteger", 1_000_000L, "s += t.a;", v8Runtime -> {
+            V8ValueObject v8ValueObject = v8Runtime.createV8ValueObject();
+            v8ValueObject.set("a", 1000);
+            return new IBoundaryOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueObject.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueObject;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueObject.getInteger("a");
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testObjectSetInteger() {
+        runBoundary("V8ValueObjectSetInteger", 1_000_000L, "t.a = i;", v8Runtime -> {
+            V8ValueObject v8ValueObject = v8Runtime.createV8ValueObject();
+            return new IBoundaryOperation() {
+                private int value = 0;
+
+                @Override
+                public void close() throws Exception {
+                    v8ValueObject.close();
+                }
+
+                @Override
+                public V8Value getTarget() {
+                    return v8ValueObject;
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueObject.set("a", value++);
+                }
+            };
+        });
+    }
+
+    protected interface IBoundaryOperation extends AutoCloseable {
+        V8Value getTarget();
+
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    protected interface IBoundaryWorkload {
+        IBoundaryOperation prepare(V8Runtime v8Runtime) throws Exception;
+    }
+}
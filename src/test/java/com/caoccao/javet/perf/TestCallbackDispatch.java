@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.annotations.V8Function;
+import com.caoccao.javet.enums.JavetCallbackType;
+import com.caoccao.javet.interfaces.IJavetAnonymous;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.callback.IJavetDirectCallable;
+import com.caoccao.javet.interop.callback.JavetCallbackContext;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The callback dispatch tests call a Java host function from a JS loop
+ * with 0 to 32 integer arguments and compare the dispatch strategies:
+ * annotation based binding with varargs, reflection based binding with fixed arity
+ * of primitive or V8 value parameters and the 4 direct call types.
+ * The latency is the average per call over a JS batch.
+ */
+public class TestCallbackDispatch extends BaseTestJavet {
+    protected static final int[] ARGUMENT_COUNTS = new int[]{0, 1, 2, 4, 8, 16, 32};
+    protected static final int BATCH_SIZE = 100;
+
+    protected static Stream<Arguments> getArguments() {
+        return Stream.of(DispatchType.values()).flatMap(dispatchType ->
+                Arrays.stream(ARGUMENT_COUNTS).mapToObj(argumentCount -> Arguments.of(dispatchType, argumentCount)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testDispatch(DispatchType dispatchType, int argumentCount) {
+        final long batchCount = 1000L;
+        final long loopCount = batchCount * BATCH_SIZE;
+        final String arguments = IntStream.range(0, argumentCount)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(", "));
+        runtimes.forEach(runtime -> {
+            CallbackReceiver callbackReceiver = new CallbackReceiver(runtime);
+            try (V8ValueObject v8ValueObject = runtime.createV8ValueObject();
+                 V8ValueFunction v8ValueFunction = runtime.getExecutor(
+                         "(o, n) => { for (let i = 0; i < n; i++) { o.test(" + arguments + "); } }").execute()) {
+                dispatchType.bind(v8ValueObject, callbackReceiver, argumentCount);
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    v8ValueFunction.callVoid(null, v8ValueObject, BATCH_SIZE);
+                    time = recordLatency(time, BATCH_SIZE);
+                }
+                stopMeasurement(runtime);
+                assertEquals(loopCount, callbackReceiver.getCallCount(), "Call count should match.");
+                logResult(createResult(runtime, "CallbackDispatch")
+                        .addParam("dispatch", dispatchType.name())
+                        .addParam("arguments", argumentCount), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum DispatchType {
+        AnnotationVarargs,
+        ReflectionFixedInt,
+        ReflectionFixedV8Value,
+        DirectNoThisAndNoResult,
+        DirectNoThisAndResult,
+        DirectThisAndNoResult,
+        DirectThisAndResult;
+
+        public void bind(V8ValueObject v8ValueObject, CallbackReceiver callbackReceiver, int argumentCount)
+                throws Exception {
+            switch (this) {
+                case AnnotationVarargs:
+                    v8ValueObject.bind(callbackReceiver);
+                    return;
+                case ReflectionFixedInt:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver, getFixedArityMethod("intArity", int.class, argumentCount)));
+                    return;
+                case ReflectionFixedV8Value:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver,
+                            getFixedArityMethod("v8ValueArity", V8Value.class, argumentCount)));
+                    return;
+                case DirectNoThisAndNoResult:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver, JavetCallbackType.DirectCallNoThisAndNoResult,
+                            (IJavetDirectCallable.NoThisAndNoResult<Exception>) callbackReceiver::noThisAndNoResult));
+                    return;
+                case DirectNoThisAndResult:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver, JavetCallbackType.DirectCallNoThisAndResult,
+                            (IJavetDirectCallable.NoThisAndResult<Exception>) callbackReceiver::noThisAndResult));
+                    return;
+                case DirectThisAndNoResult:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver, JavetCallbackType.DirectCallThisAndNoResult,
+                            (IJavetDirectCallable.ThisAndNoResult<Exception>) callbackReceiver::thisAndNoResult));
+                    return;
+                default:
+                    v8ValueObject.bindFunction(new JavetCallbackContext(
+                            "test", callbackReceiver, JavetCallbackType.DirectCallThisAndResult,
+                            (IJavetDirectCallable.ThisAndResult<Exception>) callbackReceiver::thisAndResult));
+            }
+        }
+
+        protected Method getFixedArityMethod(String prefix, Class<?> parameterType, int argumentCount)
+                throws NoSuchMethodException {
+            final Class<?>[] parameterTypes = new Class<?>[argumentCount];
+            Arrays.fill(parameterTypes, parameterType);
+            return CallbackReceiver.class.getMethod(prefix + argumentCount, parameterTypes);
+        }
+    }
+
+    /**
+     * The callback receiver counts the calls of every dispatch strategy.
+     * The fixed arity methods are looked up by reflection and cover the argument counts of the sweep.
+     */
+    public static final class CallbackReceiver implements IJavetAnonymous {
+        private final V8Runtime v8Runtime;
+        private long callCount;
+
+        public CallbackReceiver(V8Runtime v8Runtime) {
+            callCount = 0;
+            this.v8Runtime = v8Runtime;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public int intArity0() {
+            ++callCount;
+            return 0;
+        }
+
+        public int intArity1(int a0) {
+            ++callCount;
+            return 1;
+        }
+
+        public int intArity2(int a0, int a1) {
+            ++callCount;
+            return 2;
+        }
+
+        public int intArity4(int a0, int a1, int a2, int a3) {
+            ++callCount;
+            return 4;
+        }
+
+        public int intArity8(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) {
+            ++callCount;
+            return 8;
+        }
+
+        public int intArity16(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10,
+                int a11, int a12, int a13, int a14, int a15) {
+            ++callCount;
+            return 16;
+        }
+
+        public int intArity32(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10,
+                int a11, int a12, int a13, int a14, int a15, int a16, int a17, int a18, int a19, int a20, int a21,
+                int a22, int a23, int a24, int a25, int a26, int a27, int a28, int a29, int a30, int a31) {
+            ++callCount;
+            return 32;
+        }
+
+        public void noThisAndNoResult(V8Value... v8Values) {
+            ++callCount;
+        }
+
+        public V8Value noThisAndResult(V8Value... v8Values) throws Exception {
+            ++callCount;
+            return v8Runtime.createV8ValueInteger(v8Values.length);
+        }
+
+        @V8Function
+        public int test(V8Value... v8Values) {
+            ++callCount;
+            return v8Values.length;
+        }
+
+        public void thisAndNoResult(V8Value thisObject, V8Value... v8Values) {
+            ++callCount;
+        }
+
+        public V8Value thisAndResult(V8Value thisObject, V8Value... v8Values) throws Exception {
+            ++callCount;
+            return v8Runtime.createV8ValueInteger(v8Values.length);
+        }
+
+        public int v8ValueArity0() {
+            ++callCount;
+            return 0;
+        }
+
+        public int v8ValueArity1(V8Value a0) {
+            ++callCount;
+            return 1;
+        }
+
+        public int v8ValueArity2(V8Value a0, V8Value a1) {
+            ++callCount;
+            return 2;
+        }
+
+        public int v8ValueArity4(V8Value a0, V8Value a1, V8Value a2, V8Value a3) {
+            ++callCount;
+            return 4;
+        }
+
+        public int v8ValueArity8(V8Value a0, V8Value a1, V8Value a2, V8Value a3, V8Value a4, V8Value a5, V8Value a6,
+                V8Value a7) {
+            ++callCount;
+            return 8;
+        }
+
+        public int v8ValueArity16(V8Value a0, V8Value a1, V8Value a2, V8Value a3, V8Value a4, V8Value a5, V8Value a6,
+                V8Value a7, V8Value a8, V8Value a9, V8Value a10, V8Value a11, V8Value a12, V8Value a13, V8Value a14,
+                V8Value a15) {
+            ++callCount;
+            return 16;
+        }
+
+        public int v8ValueArity32(V8Value a0, V8Value a1, V8Value a2, V8Value a3, V8Value a4, V8Value a5, V8Value a6,
+                V8Value a7, V8Value a8, V8Value a9, V8Value a10, V8Value a11, V8Value a12, V8Value a13, V8Value a14,
+                V8Value a15, V8Value a16, V8Value a17, V8Value a18, V8Value a19, V8Value a20, V8Value a21,
+                V8Value a22, V8Value a23, V8Value a24, V8Value a25, V8Value a26, V8Value a27, V8Value a28,
+                V8Value a29, V8Value a30, V8Value a31) {
+            ++callCount;
+            return 32;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.annotations.V8Function;
+import com.caoccao.javet.annotations.V8Property;
+import com.caoccao.javet.interfaces.IJavetAnonymous;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.converters.IJavetConverter;
+import com.caoccao.javet.interop.converters.JavetBridgeConverter;
+import com.caoccao.javet.interop.converters.JavetProxyConverter;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The Java object access tests read, write, enumerate and call methods from JS
+ * on a Java bean exposed through @V8Property binding, the proxy converter and the bridge converter.
+ * A pure JS object with the same shape is the baseline.
+ * The latency is the average per access over a JS batch.
+ */
+public class TestJavaObjectAccess extends BaseTestJavet {
+    protected static final int BATCH_SIZE = 100;
+
+    protected static Stream<Arguments> getArguments() {
+        return Stream.of(OperationType.values()).flatMap(operationType ->
+                Stream.of(AccessType.values()).map(accessType -> Arguments.of(operationType, accessType)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testAccess(OperationType operationType, AccessType accessType) {
+        final long batchCount = 2000L;
+        final long loopCount = batchCount * BATCH_SIZE;
+        runtimes.forEach(runtime -> {
+            final IJavetConverter originalConverter = runtime.getConverter();
+            final Bean bean = new Bean();
+            try (V8ValueFunction v8ValueFunction = runtime.getExecutor(operationType.getScript()).execute();
+                 V8Value v8ValueBean = accessType.toV8Value(runtime, bean)) {
+                long sum = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    if (operationType == OperationType.Write) {
+                        v8ValueFunction.callVoid(null, v8ValueBean, BATCH_SIZE);
+                    } else {
+                        sum += v8ValueFunction.callInteger(null, v8ValueBean, BATCH_SIZE);
+                    }
+                    time = recordLatency(time, BATCH_SIZE);
+                }
+                stopMeasurement(runtime);
+                // A converter returning a function or undefined would produce NaN instead of the expected sum.
+                switch (operationType) {
+                    case Read:
+                        assertEquals(loopCount, sum, "Count should be read as a number.");
+                        break;
+                    case Write:
+                        if (accessType != AccessType.PureJs) {
+                            assertEquals(BATCH_SIZE - 1, bean.getCount(), "Count should be written to the Java bean.");
+                        }
+                        break;
+                    case MethodCall:
+                        assertEquals(loopCount * 3L, sum, "Total should be returned as a number.");
+                        break;
+                    default:
+                        break;
+                }
+                logResult(createResult(runtime, "JavaObjectAccess")
+                        .addParam("operation", operationType.name())
+                        .addParam("access", accessType.name()), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                runtime.setConverter(originalConverter);
+            }
+        });
+    }
+
+    protected enum AccessType {
+        PureJs,
+        Binding,
+        Proxy,
+        Bridge;
+
+        public V8Value toV8Value(V8Runtime v8Runtime, Bean bean) throws Exception {
+            switch (this) {
+                case PureJs:
+                    return v8Runtime.getExecutor("({ count: 1, name: 'bean', price: 1.5, "
+                            + "total(quantity) { return this.price * quantity; } })").execute();
+                case Binding:
+                    V8ValueObject v8ValueObject = v8Runtime.createV8ValueObject();
+                    v8ValueObject.bind(new BeanBinding(bean));
+                    return v8ValueObject;
+                case Proxy:
+                    v8Runtime.setConverter(new JavetProxyConverter());
+                    return v8Runtime.toV8Value(bean);
+                default:
+                    v8Runtime.setConverter(new JavetBridgeConverter());
+                    return v8Runtime.toV8Value(bean);
+            }
+        }
+    }
+
+    protected enum OperationType {
+        Read("(o, n) => { let s = 0; for (let i = 0; i < n; i++) { s += o.count; } return s; }"),
+        Write("(o, n) => { for (let i = 0; i < n; i++) { o.count = i; } }"),
+        Enumerate("(o, n) => { let s = 0; for (let i = 0; i < n; i++) { s += Object.keys(o).length; } return s; }"),
+        MethodCall("(o, n) => { let s = 0; for (let i = 0; i < n; i++) { s += o.total(2); } return s; }");
+
+        private final String script;
+
+        OperationType(String script) {
+            this.script = script;
+        }
+
+        public String getScript() {
+            return script;
+        }
+    }
+
+    public static final class Bean {
+        private int count;
+        private String name;
+        private double price;
+
+        public Bean() {
+            count = 1;
+            name = "bean";
+            price = 1.5D;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        public double total(int quantity) {
+            return price * quantity;
+        }
+    }
+
+    /**
+     * The bean binding exposes the bean through @V8Property accessors and a @V8Function method.
+     */
+    public static final class BeanBinding implements IJavetAnonymous {
+        private final Bean bean;
+
+        public BeanBinding(Bean bean) {
+            this.bean = bean;
+        }
+
+        @V8Property(name = "count")
+        public int getCount() {
+            return bean.getCount();
+        }
+
+        @V8Property(name = "name")
+        public String getName() {
+            return bean.getName();
+        }
+
+        @V8Property(name = "price")
+        public double getPrice() {
+            return bean.getPrice();
+        }
+
+        @V8Property(name = "count")
+        public void setCount(int count) {
+            bean.setCount(count);
+        }
+
+        @V8Property(name = "name")
+        public void setName(String name) {
+            bean.setName(name);
+        }
+
+        @V8Property(name = "price")
+        public void setPrice(double price) {
+            bean.setPrice(price);
+        }
+
+        @V8Function
+        public double total(int quantity) {
+            return bean.total(quantity);
+        }
+    }
+}
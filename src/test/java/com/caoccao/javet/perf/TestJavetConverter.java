@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.converters.IJavetConverter;
+import com.caoccao.javet.interop.converters.JavetBridgeConverter;
+import com.caoccao.javet.interop.converters.JavetObjectConverter;
+import com.caoccao.javet.interop.converters.JavetProxyConverter;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The converter tests convert nested Java Map / List / array graphs to and from V8 values
+ * with the object, proxy and bridge converters, and compare them with a JSON string round-trip.
+ * Each graph has about 1000 leaves in different shapes of depth and width.
+ * ToV8AndWalk walks the converted graph in JS so that the lazy proxy converter pays for its access.
+ * The bridge converter exposes Java collections as Java objects, so it is not walked.
+ * The JSON round-trip from V8 stops at the Java string because there is no JSON parser in the class path.
+ */
+public class TestJavetConverter extends BaseTestJavet {
+    protected static final int[][] SHAPES = new int[][]{{1, 1000}, {2, 32}, {3, 10}, {5, 4}};
+    protected static final long TOTAL_NODE_COUNT = 200_000L;
+    protected static final String WALK_FUNCTION = "const walk = (v) => {" +
+            "  if (v === null || typeof v !== 'object') return 1;" +
+            "  let count = 1;" +
+            "  if (Array.isArray(v)) { for (let i = 0; i < v.length; i++) count += walk(v[i]); }" +
+            "  else { for (const k of Object.keys(v)) count += walk(v[k]); }" +
+            "  return count;" +
+            "};";
+
+    protected static Object createGraph(NodeType nodeType, LeafType leafType, int depth, int width) {
+        if (depth == 0) {
+            return leafType.createLeaf(width);
+        }
+        switch (nodeType) {
+            case Map:
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < width; i++) {
+                    map.put("k" + i, createGraph(nodeType, leafType, depth - 1, width));
+                }
+                return map;
+            case List:
+                List<Object> list = new ArrayList<>(width);
+                for (int i = 0; i < width; i++) {
+                    list.add(createGraph(nodeType, leafType, depth - 1, width));
+                }
+                return list;
+            default:
+                Object[] array = new Object[width];
+                for (int i = 0; i < width; i++) {
+                    array[i] = createGraph(nodeType, leafType, depth - 1, width);
+                }
+                return array;
+        }
+    }
+
+    protected static Stream<Arguments> getArguments() {
+        List<Arguments> argumentsList = new ArrayList<>();
+        for (ConverterType converterType : ConverterType.values()) {
+            for (NodeType nodeType : NodeType.values()) {
+                for (LeafType leafType : LeafType.values()) {
+                    for (int[] shape : SHAPES) {
+                        argumentsList.add(Arguments.of(converterType, nodeType, leafType, shape[0], shape[1]));
+                    }
+                }
+            }
+        }
+        return argumentsList.stream();
+    }
+
+    protected static long getNodeCount(int depth, int width) {
+        long nodeCount = 0;
+        long levelCount = 1;
+        for (int i = 0; i <= depth; i++) {
+            nodeCount += levelCount;
+            levelCount *= width;
+        }
+        return nodeCount;
+    }
+
+    protected void logConverterResult(
+            V8Runtime runtime, String direction, ConverterType converterType, NodeType nodeType,
+            LeafType leafType, int depth, int width, long loopCount, int referenceCount, int callbackContextCount) {
+        final long nodeCount = getNodeCount(depth, width);
+        BenchmarkResult benchmarkResult = createResult(runtime, "JavetConverter" + direction)
+                .addParam("converter", converterType.name())
+                .addParam("node", nodeType.name())
+                .addParam("leaf", leafType.name())
+                .addParam("depth", depth)
+                .addParam("width", width)
+                .addMetric("nodes", nodeCount)
+                .addMetric("referenceCount", referenceCount)
+                .addMetric("callbackContextCount", callbackContextCount);
+        logResult(benchmarkResult, loopCount);
+        logger.info("[{}] JavetConverter{} {}: {} objects/s, {} references and {} callback contexts held open.",
+                StringUtils.leftPad(benchmarkResult.getRuntimeType(), 4), direction, benchmarkResult.getParams(),
+                (long) (benchmarkResult.getTps() * nodeCount), referenceCount, callbackContextCount);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testConvert(ConverterType converterType, NodeType nodeType, LeafType leafType, int depth, int width) {
+        final Object graph = createGraph(nodeType, leafType, depth, width);
+        final long loopCount = Math.max(3L, TOTAL_NODE_COUNT / getNodeCount(depth, width));
+        final StringBuilder jsonBuilder = new StringBuilder();
+        BenchmarkResult.appendJson(jsonBuilder, graph);
+        final String json = jsonBuilder.toString();
+        runtimes.forEach(runtime -> {
+            final IJavetConverter originalConverter = runtime.getConverter();
+            final IJavetConverter converter = converterType.createConverter();
+            if (converter != null) {
+                runtime.setConverter(converter);
+            }
+            // The functions are wrapped in expressions so that nothing is declared at the global scope.
+            try (V8ValueFunction walkFunction = runtime.createV8ValueFunction(
+                    "(() => { " + WALK_FUNCTION + " return walk; })()");
+                 V8ValueFunction parseFunction = runtime.createV8ValueFunction("(s) => JSON.parse(s)");
+                 V8ValueFunction parseAndWalkFunction = runtime.createV8ValueFunction(
+                         "(() => { " + WALK_FUNCTION + " return (s) => walk(JSON.parse(s)); })()");
+                 V8ValueFunction stringifyFunction = runtime.createV8ValueFunction("(v) => JSON.stringify(v)");
+                 V8Value jsGraph = parseFunction.call(null, json)) {
+                // To V8
+                final int baseReferenceCount = runtime.getReferenceCount();
+                final int baseCallbackContextCount = runtime.getCallbackContextCount();
+                int referenceCount;
+                int callbackContextCount;
+                try (V8Value v8Value = converterType.toV8Value(runtime, converter, graph, parseFunction)) {
+                    referenceCount = runtime.getReferenceCount() - baseReferenceCount;
+                    callbackContextCount = runtime.getCallbackContextCount() - baseCallbackContextCount;
+                }
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8Value v8Value = converterType.toV8Value(runtime, converter, graph, parseFunction)) {
+                        // The converted value is closed immediately.
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logConverterResult(runtime, "ToV8", converterType, nodeType, leafType, depth, width, loopCount,
+                        referenceCount, callbackContextCount);
+                // To V8 and walk
+                if (converterType != ConverterType.BridgeConverter) {
+                    time = startMeasurement(runtime);
+                    for (long i = 0; i < loopCount; i++) {
+                        if (converterType == ConverterType.JsonString) {
+                            final StringBuilder stringBuilder = new StringBuilder();
+                            BenchmarkResult.appendJson(stringBuilder, graph);
+                            parseAndWalkFunction.callInteger(null, stringBuilder.toString());
+                        } else {
+                            try (V8Value v8Value = converter.toV8Value(runtime, graph)) {
+                                walkFunction.callInteger(null, v8Value);
+                            }
+                        }
+                        time = recordLatency(time);
+                    }
+                    stopMeasurement(runtime);
+                    logConverterResult(runtime, "ToV8AndWalk", converterType, nodeType, leafType, depth, width,
+                            loopCount, referenceCount, callbackContextCount);
+                }
+                // From V8
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    if (converterType == ConverterType.JsonString) {
+                        stringifyFunction.callString(null, jsGraph);
+                    } else {
+                        converter.toObject(jsGraph);
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logConverterResult(runtime, "FromV8", converterType, nodeType, leafType, depth, width, loopCount,
+                        runtime.getReferenceCount() - baseReferenceCount,
+                        runtime.getCallbackContextCount() - baseCallbackContextCount);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                runtime.setConverter(originalConverter);
+            }
+        });
+    }
+
+    protected enum ConverterType {
+        ObjectConverter,
+        ProxyConverter,
+        BridgeConverter,
+        JsonString;
+
+        public IJavetConverter createConverter() {
+            switch (this) {
+                case ObjectConverter:
+                    return new JavetObjectConverter();
+                case ProxyConverter:
+                    return new JavetProxyConverter();
+                case BridgeConverter:
+                    return new JavetBridgeConverter();
+                default:
+                    return null;
+            }
+        }
+
+        public V8Value toV8Value(
+                V8Runtime v8Runtime, IJavetConverter converter, Object graph, V8ValueFunction parseFunction)
+                throws Exception {
+            if (this == JsonString) {
+                final StringBuilder stringBuilder = new StringBuilder();
+                BenchmarkResult.appendJson(stringBuilder, graph);
+                return parseFunction.call(null, stringBuilder.toString());
+            }
+            return converter.toV8Value(v8Runtime, graph);
+        }
+    }
+
+    protected enum LeafType {
+        Int32,
+        Float64,
+        Text;
+
+        public Object createLeaf(int seed) {
+            switch (this) {
+                case Int32:
+                    return seed;
+                case Float64:
+                    return seed + 0.5D;
+                default:
+                    return "leaf" + seed;
+            }
+        }
+    }
+
+    protected enum NodeType {
+        Map,
+        List,
+        Array
+    }
+}
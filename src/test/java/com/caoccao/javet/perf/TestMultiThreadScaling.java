@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.enums.JSRuntimeType;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.engine.IJavetEngine;
+import com.caoccao.javet.interop.engine.JavetEngineConfig;
+import com.caoccao.javet.interop.engine.JavetEnginePool;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueArray;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The multi-threaded scaling tests run the existing workloads with 1, 2, 4 ... N threads
+ * in 2 modes: one runtime per thread and a shared engine pool.
+ * The max thread count defaults to the available processors
+ * and can be overridden by system property javet.perf.threads.max.
+ * The shared pool has fewer engines than threads so that the threads wait for and share the engines.
+ * The threads per engine default to 2 and can be overridden by system property javet.perf.pool.threads.per.engine.
+ */
+public class TestMultiThreadScaling extends BaseTestJavet {
+    protected static final int POOL_BATCH_SIZE = 1000;
+    protected static final String PROPERTY_POOL_THREADS_PER_ENGINE = "javet.perf.pool.threads.per.engine";
+    protected static final String PROPERTY_THREADS_MAX = "javet.perf.threads.max";
+
+    protected static int getPoolSize(int threadCount) {
+        final int threadsPerEngine = Math.max(1, Integer.getInteger(PROPERTY_POOL_THREADS_PER_ENGINE, 2));
+        return Math.max(1, threadCount / threadsPerEngine);
+    }
+
+    protected static List<Integer> getThreadCounts() {
+        final int maxThreadCount = Integer.getInteger(
+                PROPERTY_THREADS_MAX, Runtime.getRuntime().availableProcessors());
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threadCount = 1; threadCount < maxThreadCount; threadCount *= 2) {
+            threadCounts.add(threadCount);
+        }
+        threadCounts.add(maxThreadCount);
+        return threadCounts;
+    }
+
+    protected void runScaling(String name, long loopCount, IScalingWorkload workload) {
+        for (JSRuntimeType jsRuntimeType : new JSRuntimeType[]{JSRuntimeType.V8, JSRuntimeType.Node}) {
+            for (ScalingMode scalingMode : ScalingMode.values()) {
+                double baseTps = 0;
+                for (int threadCount : getThreadCounts()) {
+                    BenchmarkPhaseEvent measureEvent = new BenchmarkPhaseEvent(
+                            testName, BenchmarkPhaseEvent.PHASE_MEASURE, jsRuntimeType.getName());
+                    try {
+                        measureEvent.begin();
+                        final long elapsedNanos = scalingMode == ScalingMode.RuntimePerThread
+                                ? runWithRuntimePerThread(jsRuntimeType, threadCount, loopCount, workload)
+                                : runWithSharedPool(jsRuntimeType, threadCount, loopCount, workload);
+                        measureEvent.end();
+                        final double aggregateTps = threadCount * loopCount * 1_000_000_000D / elapsedNanos;
+                        if (threadCount == 1) {
+                            baseTps = aggregateTps;
+                        }
+                        final double efficiency = aggregateTps * 100D / (baseTps * threadCount);
+                        BenchmarkResult benchmarkResult = new BenchmarkResult(name, jsRuntimeType.getName())
+                                .addParam("mode", scalingMode.name())
+                                .addParam("threads", threadCount);
+                        if (scalingMode == ScalingMode.SharedPool) {
+                            benchmarkResult.addParam("poolSize", getPoolSize(threadCount));
+                        }
+                        measureEvent.setBenchmark(benchmarkResult.getName() + " " + benchmarkResult.getParams());
+                        measureEvent.commit();
+                        ResultSink.getInstance().write(benchmarkResult
+                                .setThroughput(threadCount * loopCount, elapsedNanos)
+                                .addMetric("perThreadTps", aggregateTps / threadCount)
+                                .addMetric("scalingEfficiency", efficiency / 100D));
+                        logger.info(
+                                "[{}] Scaling {} ({}, {} threads): aggregate TPS is {}, per thread TPS is {}, efficiency is {}%.",
+                                StringUtils.leftPad(jsRuntimeType.getName(), 4), name, scalingMode.getName(), threadCount,
+                                (long) aggregateTps, (long) (aggregateTps / threadCount), String.format("%.1f", efficiency));
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+            }
+        }
+    }
+
+    protected long runWithRuntimePerThread(
+            JSRuntimeType jsRuntimeType, int threadCount, long loopCount, IScalingWorkload workload)
+            throws Exception {
+        final CyclicBarrier readyBarrier = new CyclicBarrier(threadCount + 1);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executorService.submit(() -> {
+                    try (V8Runtime v8Runtime = V8Host.getInstance(jsRuntimeType).createV8Runtime()) {
+                        try (IScalingOperation operation = workload.prepare(v8Runtime)) {
+                            readyBarrier.await();
+                            startLatch.await();
+                            for (long j = 0; j < loopCount; j++) {
+                                operation.run();
+                            }
+                            return System.nanoTime();
+                        } finally {
+                            v8Runtime.lowMemoryNotification();
+                            assertEquals(0, v8Runtime.getReferenceCount(),
+                                    "Reference count should be 0 after test case is ended.");
+                        }
+                    }
+                }));
+            }
+            readyBarrier.await();
+            final long startTime = System.nanoTime();
+            startLatch.countDown();
+            long endTime = startTime;
+            for (Future<Long> future : futures) {
+                endTime = Math.max(endTime, future.get());
+            }
+            return endTime - startTime;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    protected long runWithSharedPool(
+            JSRuntimeType jsRuntimeType, int threadCount, long loopCount, IScalingWorkload workload)
+            throws Exception {
+        JavetEngineConfig javetEngineConfig = new JavetEngineConfig();
+        javetEngineConfig.setJSRuntimeType(jsRuntimeType);
+        final int poolSize = getPoolSize(threadCount);
+        javetEngineConfig.setPoolMinSize(poolSize);
+        javetEngineConfig.setPoolMaxSize(poolSize);
+        try (JavetEnginePool<V8Runtime> javetEnginePool = new JavetEnginePool<>(javetEngineConfig)) {
+            final long batchCount = Math.max(1L, loopCount / POOL_BATCH_SIZE);
+            final long batchSize = loopCount / batchCount;
+            final CyclicBarrier readyBarrier = new CyclicBarrier(threadCount + 1);
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+            try {
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    futures.add(executorService.submit(() -> {
+                        // Warm up the pool so that engine creation is not counted.
+                        try (IJavetEngine<V8Runtime> javetEngine = javetEnginePool.getEngine();
+                             IScalingOperation operation = workload.prepare(javetEngine.getV8Runtime())) {
+                            operation.run();
+                        }
+                        readyBarrier.await();
+                        startLatch.await();
+                        for (long j = 0; j < batchCount; j++) {
+                            try (IJavetEngine<V8Runtime> javetEngine = javetEnginePool.getEngine();
+                                 IScalingOperation operation = workload.prepare(javetEngine.getV8Runtime())) {
+                                for (long k = 0; k < batchSize; k++) {
+                                    operation.run();
+                                }
+                            }
+                        }
+                        return System.nanoTime();
+                    }));
+                }
+                readyBarrier.await();
+                final long startTime = System.nanoTime();
+                startLatch.countDown();
+                long endTime = startTime;
+                for (Future<Long> future : futures) {
+                    endTime = Math.max(endTime, future.get());
+                }
+                return endTime - startTime;
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testArrayForEachWithUniConsumer() {
+        final int arrayLength = 1000;
+        runScaling("V8ValueArrayForEachWithUniConsumer", 1000L, v8Runtime -> {
+            V8ValueArray v8ValueArray = v8Runtime.getExecutor(
+                    "Array.from({ length: " + arrayLength + " }, (_, i) => i)").execute();
+            return new IScalingOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueArray.close();
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueArray.forEach((V8ValueInteger value) -> value.getValue());
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testFunctionCallWithoutArguments() {
+        runScaling("V8ValueFunctionCallWithoutArguments", 200_000L, v8Runtime -> {
+            // The pooled engines are not reset on release, so the workload must not declare globals.
+            V8ValueFunction v8ValueFunction = v8Runtime.createV8ValueFunction("(function() { return 1; })");
+            return new IScalingOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueFunction.close();
+                }
+
+                @Override
+                public void run() throws Exception {
+                    V8ValueInteger v8ValueInteger = v8ValueFunction.call(null);
+                    v8ValueInteger.getValue();
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testObjectGetInteger() {
+        runScaling("V8ValueObjectGetInteger", 200_000L, v8Runtime -> {
+            V8ValueObject v8ValueObject = v8Runtime.createV8ValueObject();
+            v8ValueObject.set("a", 1000);
+            return new IScalingOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueObject.close();
+                }
+
+                @Override
+                public void run() throws Exception {
+                    v8ValueObject.getInteger("a");
+                }
+            };
+        });
+    }
+
+    protected enum ScalingMode {
+        RuntimePerThread("runtime per thread"),
+        SharedPool("shared pool");
+
+        private final String name;
+
+        ScalingMode(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    protected interface IScalingOperation extends AutoCloseable {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    protected interface IScalingWorkload {
+        IScalingOperation prepare(V8Runtime v8Runtime) throws Exception;
+    }
+}
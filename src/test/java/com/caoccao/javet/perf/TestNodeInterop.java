@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueArrayBuffer;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValuePromise;
+import com.caoccao.javet.values.reference.V8ValueTypedArray;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The Node interop tests only run in the Node runtime and cover what the V8 runtime does not have:
+ * moving data between Java direct byte buffers and Node buffers,
+ * require() of built-in modules in a fresh runtime or from the module cache
+ * and reading local files through fs and streams.
+ * Every scenario has a pure Node or pure Java baseline that does the same work without crossing the boundary.
+ */
+public class TestNodeInterop extends BaseTestJavet {
+    protected static final int[] BUFFER_SIZES = new int[]{1024, 64 * 1024, 1024 * 1024};
+    protected static final int[] FILE_SIZES = new int[]{64 * 1024, 4 * 1024 * 1024};
+    protected static final int JS_BATCH_SIZE = 10;
+    protected static final String[] MODULE_NAMES = new String[]{"path", "util", "zlib", "crypto", "http"};
+
+    @TempDir
+    protected Path tempPath;
+
+    protected static Stream<Arguments> getBufferArguments() {
+        return Stream.of(BufferMode.values()).flatMap(bufferMode ->
+                IntStream.of(BUFFER_SIZES).mapToObj(size -> Arguments.of(bufferMode, size)));
+    }
+
+    protected static Stream<Arguments> getFileArguments() {
+        return Stream.of(FileMode.values()).flatMap(fileMode ->
+                IntStream.of(FILE_SIZES).mapToObj(size -> Arguments.of(fileMode, size)));
+    }
+
+    protected static Stream<Arguments> getRequireArguments() {
+        return Stream.of(RequireMode.values()).flatMap(requireMode ->
+                Stream.of(MODULE_NAMES).map(moduleName -> Arguments.of(requireMode, moduleName)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getBufferArguments")
+    public void testBuffer(BufferMode bufferMode, int size) {
+        final long loopCount = Math.max(100L, Math.min(100_000L, 1_000_000_000L / size));
+        final ByteBuffer javaByteBuffer = ByteBuffer.allocateDirect(size);
+        for (int i = 0; i < size; i++) {
+            javaByteBuffer.put(i, (byte) i);
+        }
+        try (V8ValueFunction fromArrayBufferFunction = nodeRuntime.getExecutor(
+                "(a) => Buffer.from(a).readUInt8(a.byteLength - 1)").execute();
+             V8ValueFunction allocFunction = nodeRuntime.getExecutor(
+                     "(n) => { const b = Buffer.allocUnsafeSlow(n); b.fill(1); return b; }").execute();
+             V8ValueFunction pureNodeFunction = nodeRuntime.getExecutor(
+                     "(n) => { const b = Buffer.allocUnsafeSlow(n); b.fill(1); const c = Buffer.allocUnsafeSlow(n); "
+                             + "b.copy(c); return c.readUInt8(n - 1); }").execute()) {
+            long count = 0;
+            long time = startMeasurement(nodeRuntime);
+            for (long i = 0; i < loopCount; i++) {
+                switch (bufferMode) {
+                    case JavaToNode:
+                        try (V8ValueArrayBuffer v8ValueArrayBuffer = nodeRuntime.createV8ValueArrayBuffer(size)) {
+                            javaByteBuffer.clear();
+                            v8ValueArrayBuffer.getByteBuffer().put(javaByteBuffer);
+                            count += fromArrayBufferFunction.callInteger(null, v8ValueArrayBuffer);
+                        }
+                        break;
+                    case NodeToJava:
+                        try (V8ValueTypedArray v8ValueTypedArray = allocFunction.call(null, size);
+                             V8ValueArrayBuffer v8ValueArrayBuffer = v8ValueTypedArray.getBuffer()) {
+                            ByteBuffer byteBuffer = v8ValueArrayBuffer.getByteBuffer();
+                            byteBuffer.position(v8ValueTypedArray.getByteOffset());
+                            byteBuffer.limit(v8ValueTypedArray.getByteOffset() + v8ValueTypedArray.getByteLength());
+                            javaByteBuffer.clear();
+                            javaByteBuffer.put(byteBuffer);
+                            count += javaByteBuffer.get(size - 1);
+                        }
+                        break;
+                    default:
+                        count += pureNodeFunction.callInteger(null, size);
+                        break;
+                }
+                time = recordLatency(time);
+            }
+            stopMeasurement(nodeRuntime);
+            assertEquals(loopCount * (bufferMode == BufferMode.JavaToNode ? (size - 1) & 0xFF : 1), count,
+                    "Count should match.");
+            logResult(createResult(nodeRuntime, "NodeBuffer")
+                    .addParam("mode", bufferMode.name())
+                    .addParam("size", size)
+                    .setBytesPerOperation(size), loopCount);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getFileArguments")
+    public void testFileRead(FileMode fileMode, int size) {
+        final long loopCount = Math.max(20L, Math.min(10_000L, 1_000_000_000L / size));
+        try {
+            final byte[] bytes = new byte[size];
+            for (int i = 0; i < size; i++) {
+                bytes[i] = (byte) ('a' + i % 26);
+            }
+            final Path filePath = tempPath.resolve("file-" + size + ".txt");
+            Files.write(filePath, bytes);
+            final String fileName = filePath.toAbsolutePath().toString();
+            try (V8ValueFunction v8ValueFunction = nodeRuntime.getExecutor(fileMode.getScript()).execute()) {
+                long length = 0;
+                long time = startMeasurement(nodeRuntime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (fileMode) {
+                        case JavaFiles:
+                            length += Files.readAllBytes(filePath).length;
+                            break;
+                        case ReadFileSync:
+                            length += v8ValueFunction.callInteger(null, fileName);
+                            break;
+                        case ReadFileSyncInJs:
+                            length += v8ValueFunction.callInteger(null, fileName, JS_BATCH_SIZE);
+                            break;
+                        default:
+                            try (V8ValuePromise v8ValuePromise = v8ValueFunction.call(null, fileName)) {
+                                awaitPromise(nodeRuntime, v8ValuePromise);
+                                V8ValueInteger v8ValueInteger = v8ValuePromise.getResult();
+                                length += v8ValueInteger.getValue();
+                            }
+                            break;
+                    }
+                    time = fileMode == FileMode.ReadFileSyncInJs
+                            ? recordLatency(time, JS_BATCH_SIZE)
+                            : recordLatency(time);
+                }
+                stopMeasurement(nodeRuntime);
+                final long operationCount = fileMode == FileMode.ReadFileSyncInJs
+                        ? loopCount * JS_BATCH_SIZE
+                        : loopCount;
+                assertEquals(operationCount * size, length, "Length should match.");
+                logResult(createResult(nodeRuntime, "NodeFileRead")
+                        .addParam("mode", fileMode.name())
+                        .addParam("size", size)
+                        .setBytesPerOperation(size), operationCount);
+            }
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRequireArguments")
+    public void testRequire(RequireMode requireMode, String moduleName) {
+        final long loopCount = requireMode == RequireMode.Cold ? 20L : 100_000L;
+        try (V8ValueFunction v8ValueFunction = nodeRuntime.getExecutor(requireMode.getScript()).execute()) {
+            final V8Host v8Host = V8Host.getNodeInstance();
+            long time = startMeasurement(nodeRuntime);
+            for (long i = 0; i < loopCount; i++) {
+                switch (requireMode) {
+                    case Cold:
+                        // The stop watch only runs during the require.
+                        stopWatch.suspend();
+                        try (V8Runtime freshRuntime = v8Host.createV8Runtime()) {
+                            stopWatch.resume();
+                            time = System.nanoTime();
+                            freshRuntime.getExecutor("require('" + moduleName + "');").executeVoid();
+                            time = recordLatency(time);
+                            stopWatch.suspend();
+                        }
+                        stopWatch.resume();
+                        break;
+                    case Cached:
+                        v8ValueFunction.callVoid(null, moduleName);
+                        time = recordLatency(time);
+                        break;
+                    default:
+                        v8ValueFunction.callVoid(null, moduleName, JS_BATCH_SIZE);
+                        time = recordLatency(time, JS_BATCH_SIZE);
+                        break;
+                }
+            }
+            stopMeasurement(nodeRuntime);
+            final long operationCount = requireMode == RequireMode.CachedInJs
+                    ? loopCount * JS_BATCH_SIZE
+                    : loopCount;
+            logResult(createResult(nodeRuntime, "NodeRequire")
+                    .addParam("mode", requireMode.name())
+                    .addParam("module", moduleName), operationCount);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    protected enum BufferMode {
+        JavaToNode,
+        NodeToJava,
+        PureNode
+    }
+
+    protected enum FileMode {
+        JavaFiles("(f) => 0"),
+        ReadFileSync("(f) => require('fs').readFileSync(f).length"),
+        ReadFileSyncInJs("(f, n) => { const fs = require('fs'); let s = 0; "
+                + "for (let i = 0; i < n; i++) { s += fs.readFileSync(f).length; } return s; }"),
+        ReadFilePromise("(f) => require('fs').promises.readFile(f).then(b => b.length)"),
+        ReadStream("(f) => new Promise((resolve, reject) => { let s = 0; require('fs').createReadStream(f)"
+                + ".on('data', c => s += c.length).on('end', () => resolve(s)).on('error', reject); })");
+
+        private final String script;
+
+        FileMode(String script) {
+            this.script = script;
+        }
+
+        public String getScript() {
+            return script;
+        }
+    }
+
+    protected enum RequireMode {
+        Cold("(m) => 0"),
+        Cached("(m) => { require(m); }"),
+        CachedInJs("(m, n) => { for (let i = 0; i < n; i++) { require(m); } }");
+
+        private final String script;
+
+        RequireMode(String script) {
+            this.script = script;
+        }
+
+        public String getScript() {
+            return script;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The runtime density test keeps creating tenant runtimes, each loaded with a baseline script and data set,
+ * until the process memory growth hits a budget. It records RSS, native memory and V8 heap per runtime
+ * and the resulting runtimes per GB under the current V8 heap flags.
+ * <p>
+ * The budget, the runtime cap, the data set size and the baseline script can be overridden by system properties
+ * javet.perf.density.budget.mb, javet.perf.density.max.runtimes, javet.perf.density.data.size
+ * and javet.perf.density.script. Different heap flags require different JVMs, see the perfDensity task.
+ * The pages of closed runtimes stay mapped and would be reused by the next runtime type,
+ * so javet.perf.density.runtime.type, e.g. v8 or node, selects one runtime type per JVM.
+ * It is excluded from the test task and only runs through the perfDensity task.
+ */
+public class TestRuntimeDensity extends BaseTestJavet {
+    protected static final long BYTES_PER_GB = 1024L * 1024L * 1024L;
+    protected static final long BYTES_PER_MB = 1024L * 1024L;
+    protected static final String PROPERTY_DENSITY_BUDGET_MB = "javet.perf.density.budget.mb";
+    protected static final String PROPERTY_DENSITY_DATA_SIZE = "javet.perf.density.data.size";
+    protected static final String PROPERTY_DENSITY_MAX_RUNTIMES = "javet.perf.density.max.runtimes";
+    protected static final String PROPERTY_DENSITY_RUNTIME_TYPE = "javet.perf.density.runtime.type";
+    protected static final String PROPERTY_DENSITY_SCRIPT = "javet.perf.density.script";
+
+    /**
+     * Gets the baseline script of a tenant runtime.
+     * The default script builds a data set of objects and a handler reading from it.
+     *
+     * @param dataSize the data size
+     * @return the baseline script
+     * @throws IOException the io exception
+     */
+    protected static String getBaselineScript(int dataSize) throws IOException {
+        final String scriptPath = System.getProperty(PROPERTY_DENSITY_SCRIPT);
+        if (StringUtils.isNotBlank(scriptPath)) {
+            return Files.readString(Path.of(scriptPath), StandardCharsets.UTF_8);
+        }
+        return "globalThis.tenantData = Array.from({ length: " + dataSize + " }, (_, i) => ({\n" +
+                "  id: i, name: 'item' + i, tags: ['a', 'b', 'c'], value: i * 1.5 }));\n" +
+                "globalThis.handle = (request) => tenantData[request % tenantData.length].value;\n" +
+                "handle(1);";
+    }
+
+    /**
+     * Gets the committed bytes of the Java heap and non-heap.
+     * They are subtracted from RSS to approximate the native memory owned by V8 and Javet.
+     *
+     * @return the committed bytes
+     */
+    protected static long getJvmCommittedBytes() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        return memoryMXBean.getHeapMemoryUsage().getCommitted() + memoryMXBean.getNonHeapMemoryUsage().getCommitted();
+    }
+
+    @Test
+    public void testDensity() {
+        final long budgetBytes = Long.getLong(PROPERTY_DENSITY_BUDGET_MB, 1024L) * BYTES_PER_MB;
+        final int maxRuntimes = Integer.getInteger(PROPERTY_DENSITY_MAX_RUNTIMES, 200);
+        final int dataSize = Integer.getInteger(PROPERTY_DENSITY_DATA_SIZE, 10000);
+        final String runtimeType = System.getProperty(PROPERTY_DENSITY_RUNTIME_TYPE);
+        runtimes.stream().filter(runtime -> StringUtils.isBlank(runtimeType)
+                || runtime.getJSRuntimeType().getName().equalsIgnoreCase(runtimeType)).forEach(runtime -> {
+            final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+            List<V8Runtime> tenantRuntimes = new ArrayList<>();
+            Throwable failure = null;
+            try {
+                final String baselineScript = getBaselineScript(dataSize);
+                latencyRecorder.reset();
+                System.gc();
+                final long rssBefore = ProcessMemory.getResidentSetSize();
+                final long jvmCommittedBefore = getJvmCommittedBytes();
+                long externalMemory = 0;
+                long mallocedMemory = 0;
+                long totalHeapSize = 0;
+                long usedHeapSize = 0;
+                long usedBytes = 0;
+                long totalNanos = 0;
+                while (tenantRuntimes.size() < maxRuntimes && usedBytes < budgetBytes) {
+                    final long startTime = System.nanoTime();
+                    V8Runtime tenantRuntime = v8Host.createV8Runtime();
+                    tenantRuntimes.add(tenantRuntime);
+                    tenantRuntime.getExecutor(baselineScript).setResourceName("tenant.js").executeVoid();
+                    final long elapsedNanos = System.nanoTime() - startTime;
+                    latencyRecorder.record(elapsedNanos);
+                    totalNanos += elapsedNanos;
+                    // Settle the tenant so that only the retained baseline is counted.
+                    tenantRuntime.lowMemoryNotification();
+                    V8HeapStatistics v8HeapStatistics = tenantRuntime.getV8HeapStatistics();
+                    externalMemory += v8HeapStatistics.getExternalMemory();
+                    mallocedMemory += v8HeapStatistics.getMallocedMemory();
+                    totalHeapSize += v8HeapStatistics.getTotalHeapSize();
+                    usedHeapSize += v8HeapStatistics.getUsedHeapSize();
+                    final long rss = ProcessMemory.getResidentSetSize();
+                    // Fall back to the V8 accounting where RSS is not available.
+                    usedBytes = rssBefore > 0 && rss > 0
+                            ? rss - rssBefore
+                            : totalHeapSize + mallocedMemory + externalMemory;
+                }
+                final int runtimeCount = tenantRuntimes.size();
+                assertTrue(runtimeCount > 0);
+                final long rssAfter = ProcessMemory.getResidentSetSize();
+                final long rssBytesPerRuntime = rssBefore > 0 && rssAfter > 0
+                        ? (rssAfter - rssBefore) / runtimeCount
+                        : -1L;
+                final long nativeBytesPerRuntime = rssBytesPerRuntime >= 0
+                        ? rssBytesPerRuntime - (getJvmCommittedBytes() - jvmCommittedBefore) / runtimeCount
+                        : -1L;
+                final double runtimesPerGb = usedBytes > 0 ? (double) runtimeCount * BYTES_PER_GB / usedBytes : 0D;
+                BenchmarkResult benchmarkResult = createResult(runtime, "RuntimeDensity")
+                        .addParam("budgetMb", budgetBytes / BYTES_PER_MB)
+                        .addParam("dataSize", dataSize)
+                        .addParam("maxHeapSize", getMaxHeapSize())
+                        .addParam("maxOldSpaceSize", getMaxOldSpaceSize())
+                        .addParam("script", System.getProperty(PROPERTY_DENSITY_SCRIPT, "default"))
+                        .setThroughput(runtimeCount, totalNanos)
+                        .setLatency(latencyRecorder)
+                        .addMetric("budgetReached", usedBytes >= budgetBytes)
+                        .addMetric("externalBytesPerRuntime", externalMemory / runtimeCount)
+                        .addMetric("mallocedBytesPerRuntime", mallocedMemory / runtimeCount)
+                        .addMetric("nativeBytesPerRuntime", nativeBytesPerRuntime)
+                        .addMetric("rssBytesPerRuntime", rssBytesPerRuntime)
+                        .addMetric("runtimes", runtimeCount)
+                        .addMetric("runtimesPerGb", runtimesPerGb)
+                        .addMetric("totalHeapBytesPerRuntime", totalHeapSize / runtimeCount)
+                        .addMetric("usedHeapBytesPerRuntime", usedHeapSize / runtimeCount);
+                ResultSink.getInstance().write(benchmarkResult);
+                logger.info(
+                        "[{}] RuntimeDensity: heap {}/{}MB, {} runtimes in {}MB, {} per GB, RSS {} bytes, " +
+                                "native {} bytes, V8 used heap {} bytes per runtime.",
+                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4),
+                        getMaxHeapSize(), getMaxOldSpaceSize(), runtimeCount, usedBytes / BYTES_PER_MB,
+                        String.format("%.1f", runtimesPerGb), rssBytesPerRuntime, nativeBytesPerRuntime,
+                        usedHeapSize / runtimeCount);
+            } catch (Throwable t) {
+                failure = t;
+            }
+            // The close errors are collected so that they do not hide the original failure.
+            for (V8Runtime tenantRuntime : tenantRuntimes) {
+                try {
+                    tenantRuntime.close();
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    } else {
+                        failure.addSuppressed(t);
+                    }
+                }
+            }
+            if (failure != null) {
+                fail(failure);
+            }
+        });
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.reference.V8Script;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The script compile cache tests compile generated scripts from 10KB to 5MB in 3 ways:
+ * without code cache, with the code cache kept in memory
+ * and with the code cache persisted to a local file and read back through a memory-mapped buffer.
+ * Every compilation happens in a fresh runtime so that the isolate compilation cache never hits.
+ * Only the compilation is timed, the runtime creation is excluded.
+ */
+public class TestScriptCompileCache extends BaseTestJavet {
+    protected static final String RESOURCE_NAME = "./bundle.js";
+    protected static final int[] SCRIPT_SIZES = new int[]{10_000, 100_000, 1_000_000, 5_000_000};
+
+    @TempDir
+    protected Path tempPath;
+
+    protected static String createScript(int size) {
+        final StringBuilder stringBuilder = new StringBuilder(size + 256);
+        for (int i = 0; stringBuilder.length() < size; i++) {
+            stringBuilder.append("function f").append(i).append("(a, b) {\n")
+                    .append("  let s = 0;\n")
+                    .append("  for (let j = 0; j < a; j++) { s += (j * b + ").append(i).append(") % 7; }\n")
+                    .append("  return { index: ").append(i).append(", sum: s, text: 'f' + a + b };\n")
+                    .append("}\n");
+        }
+        stringBuilder.append("f0(1, 2);\n");
+        return stringBuilder.toString();
+    }
+
+    protected static Stream<Arguments> getArguments() {
+        return Stream.of(CacheMode.values()).flatMap(cacheMode ->
+                Arrays.stream(SCRIPT_SIZES).mapToObj(size -> Arguments.of(cacheMode, size)));
+    }
+
+    protected static byte[] readMappedFile(Path path) throws Exception {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            final byte[] bytes = new byte[mappedByteBuffer.remaining()];
+            mappedByteBuffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testCompile(CacheMode cacheMode, int size) {
+        final String script = createScript(size);
+        final long loopCount = Math.max(5L, 2_000_000L / size);
+        runtimes.forEach(runtime -> {
+            try {
+                final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+                byte[] cachedData = null;
+                final Path cachePath = tempPath.resolve("bundle." + runtime.getJSRuntimeType().getName() + ".cache");
+                if (cacheMode != CacheMode.None) {
+                    try (V8Runtime producerRuntime = v8Host.createV8Runtime();
+                         V8Script v8Script = producerRuntime.getExecutor(script)
+                                 .setResourceName(RESOURCE_NAME).compileV8Script()) {
+                        cachedData = v8Script.getCachedData();
+                    }
+                    assertTrue(cachedData != null && cachedData.length > 0, "Code cache should not be empty.");
+                    if (cacheMode == CacheMode.MappedFile) {
+                        Files.write(cachePath, cachedData);
+                    }
+                }
+                long bytesRead = 0;
+                long usedHeapBytes = 0;
+                // Only the compilation is measured. The stop watch and the allocation recorder are suspended
+                // while the fresh runtimes are created and closed. The heap statistics come from the fresh runtimes.
+                long time = startMeasurement(runtime);
+                stopWatch.suspend();
+                allocationRecorder.suspend();
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8Runtime freshRuntime = v8Host.createV8Runtime()) {
+                        final long usedHeapSizeBefore = freshRuntime.getV8HeapStatistics().getUsedHeapSize();
+                        V8Script v8Script;
+                        stopWatch.resume();
+                        allocationRecorder.resume();
+                        time = System.nanoTime();
+                        try {
+                            byte[] compileCachedData = cachedData;
+                            if (cacheMode == CacheMode.MappedFile) {
+                                compileCachedData = readMappedFile(cachePath);
+                                bytesRead += compileCachedData.length;
+                            }
+                            v8Script = freshRuntime.getExecutor(script, compileCachedData)
+                                    .setResourceName(RESOURCE_NAME).compileV8Script();
+                            time = recordLatency(time);
+                        } finally {
+                            stopWatch.suspend();
+                            allocationRecorder.suspend();
+                        }
+                        usedHeapBytes += freshRuntime.getV8HeapStatistics().getUsedHeapSize() - usedHeapSizeBefore;
+                        v8Script.close();
+                    }
+                }
+                stopWatch.resume();
+                allocationRecorder.resume();
+                stopMeasurement(runtime);
+                // The base runtime is idle, so its heap statistics are meaningless.
+                allocationRecorder.discardV8HeapStatistics();
+                logResult(createResult(runtime, "ScriptCompile")
+                        .addParam("cache", cacheMode.name())
+                        .addParam("scriptBytes", script.length())
+                        .addMetric("cachedDataBytes", cachedData == null ? 0 : cachedData.length)
+                        .addMetric("bytesReadPerCompile", bytesRead / loopCount)
+                        .addMetric("v8UsedHeapBytesPerCompile", usedHeapBytes / loopCount)
+                        .setBytesPerOperation(script.length()), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum CacheMode {
+        None,
+        InProcess,
+        MappedFile
+    }
+}
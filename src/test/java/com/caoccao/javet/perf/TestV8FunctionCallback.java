@@ -21,7 +21,6 @@ import com.caoccao.javet.interfaces.IJavetAnonymous;
 import com.caoccao.javet.values.V8Value;
 import com.caoccao.javet.values.primitive.V8ValueInteger;
 import com.caoccao.javet.values.reference.V8ValueObject;
-import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -30,6 +29,65 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestV8FunctionCallback extends BaseTestJavet {
+    @Test
+    public void testInvokeIntegerWith20Arguments() {
+        IJavetAnonymous anonymous = new IJavetAnonymous() {
+            @V8Function
+            public int test(V8Value... v8Values) {
+                return v8Values.length;
+            }
+        };
+        final int argumentCount = 20;
+        final long loopCount = 200_000L;
+        V8Value[] arguments = new V8Value[argumentCount];
+        runtimes.forEach(runtime -> {
+            try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
+                Arrays.fill(arguments, runtime.createV8ValueInteger(1));
+                v8ValueObject.bind(anonymous);
+                int count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    count += v8ValueObject.invokeInteger("test", (Object[]) arguments);
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(argumentCount * loopCount, count, "Count should match.");
+                logResult(runtime, "V8FunctionCallbackInvokeIntegerWith20Arguments", loopCount);
+                assertAllocationPerOperation(loopCount, argumentCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testInvokeIntegerWithoutArguments() {
+        IJavetAnonymous anonymous = new IJavetAnonymous() {
+            @V8Function
+            public int test(V8Value... v8Values) {
+                return 1;
+            }
+        };
+        final long loopCount = 500_000L;
+        runtimes.forEach(runtime -> {
+            try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
+                v8ValueObject.bind(anonymous);
+                int count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    count += v8ValueObject.invokeInteger("test", (Object[]) EMPTY_ARGUMENTS);
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(loopCount, count, "Count should match.");
+                logResult(runtime, "V8FunctionCallbackInvokeIntegerWithoutArguments", loopCount);
+                assertAllocationPerOperation(loopCount, 0);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
     @Test
     public void testReceiveCallbackWith20Arguments() {
         IJavetAnonymous anonymous = new IJavetAnonymous() {
@@ -46,18 +104,15 @@ public class TestV8FunctionCallback extends BaseTestJavet {
                 Arrays.fill(arguments, runtime.createV8ValueInteger(1));
                 v8ValueObject.bind(anonymous);
                 int count = 0;
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     V8ValueInteger v8ValueInteger = v8ValueObject.invoke("test", arguments);
                     count += v8ValueInteger.getValue();
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
+                stopMeasurement(runtime);
                 assertEquals(argumentCount * loopCount, count, "Count should match.");
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8FunctionCallbackReceiveCallbackWith20Arguments: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                logResult(runtime, "V8FunctionCallbackReceiveCallbackWith20Arguments", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -77,18 +132,15 @@ public class TestV8FunctionCallback extends BaseTestJavet {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.bind(anonymous);
                 int count = 0;
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     V8ValueInteger v8ValueInteger = v8ValueObject.invoke("test");
                     count += v8ValueInteger.getValue();
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
+                stopMeasurement(runtime);
                 assertEquals(loopCount, count, "Count should match.");
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8FunctionCallbackReceiveCallbackWithoutArguments: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                logResult(runtime, "V8FunctionCallbackReceiveCallbackWithoutArguments", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
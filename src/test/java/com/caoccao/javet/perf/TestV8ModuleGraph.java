@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.exceptions.JavetException;
+import com.caoccao.javet.interfaces.IV8ModuleResolver;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.reference.IV8Module;
+import com.caoccao.javet.values.reference.V8Module;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The module graph tests generate ES module graphs with a fan-out and a depth
+ * from 10 to about 10,000 modules in a local directory and import them through a module resolver.
+ * The uncached resolver reads and compiles every module from disk.
+ * The cached resolver shares the source and the code cache of every module across runtimes.
+ * Every import happens in a fresh runtime, the runtime creation is excluded.
+ */
+public class TestV8ModuleGraph extends BaseTestJavet {
+    protected static final GraphShape[] GRAPH_SHAPES = new GraphShape[]{
+            new GraphShape(9, 1),
+            new GraphShape(10, 2),
+            new GraphShape(10, 3),
+            new GraphShape(21, 3),
+    };
+    protected static final String ROOT_RESOURCE_NAME = "./m0.mjs";
+
+    @TempDir
+    protected static Path tempPath;
+
+    protected static Stream<Arguments> getArguments() {
+        return Stream.of(ResolverType.values()).flatMap(resolverType ->
+                Stream.of(GRAPH_SHAPES).map(graphShape -> Arguments.of(resolverType, graphShape)));
+    }
+
+    protected static String getResourceName(int index) {
+        return "./m" + index + ".mjs";
+    }
+
+    /**
+     * Writes the module graph as a tree in breadth-first order so that the children
+     * of module i are module i * fanOut + 1 to module i * fanOut + fanOut.
+     *
+     * @param graphShape the graph shape
+     * @return the directory of the module graph
+     * @throws IOException the IO exception
+     */
+    protected static Path writeGraph(GraphShape graphShape) throws IOException {
+        final Path graphPath = tempPath.resolve("graph-" + graphShape);
+        if (Files.isDirectory(graphPath)) {
+            return graphPath;
+        }
+        Files.createDirectories(graphPath);
+        final int moduleCount = graphShape.getModuleCount();
+        for (int i = 0; i < moduleCount; i++) {
+            final StringBuilder stringBuilder = new StringBuilder();
+            final StringBuilder sumBuilder = new StringBuilder().append(i);
+            final int firstChild = i * graphShape.getFanOut() + 1;
+            for (int j = firstChild; j < firstChild + graphShape.getFanOut() && j < moduleCount; j++) {
+                stringBuilder.append("import { value as v").append(j).append(" } from '")
+                        .append(getResourceName(j)).append("';\n");
+                sumBuilder.append(" + v").append(j);
+            }
+            stringBuilder.append("export function describe(prefix) {\n")
+                    .append("  return prefix + ':' + ").append(i).append(";\n")
+                    .append("}\n")
+                    .append("export const value = ").append(sumBuilder).append(";\n");
+            if (i == 0) {
+                stringBuilder.append("globalThis.moduleSum = value;\n");
+            }
+            Files.writeString(graphPath.resolve(getResourceName(i)), stringBuilder.toString(), StandardCharsets.UTF_8);
+        }
+        return graphPath;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testImport(ResolverType resolverType, GraphShape graphShape) {
+        final int moduleCount = graphShape.getModuleCount();
+        final long expectedSum = (long) moduleCount * (moduleCount - 1) / 2;
+        final long loopCount = Math.max(3L, 10_000L / moduleCount);
+        runtimes.forEach(runtime -> {
+            try {
+                final Path graphPath = writeGraph(graphShape);
+                final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+                ModuleLoader moduleLoader = new ModuleLoader(graphPath, resolverType);
+                if (resolverType == ResolverType.Cached) {
+                    // Populate the shared cache from another runtime.
+                    try (V8Runtime producerRuntime = v8Host.createV8Runtime()) {
+                        moduleLoader.importGraph(producerRuntime);
+                    }
+                }
+                moduleLoader.resetResolverNanos();
+                long importNanos = 0;
+                startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    // The stop watch only runs during the import.
+                    stopWatch.suspend();
+                    try (V8Runtime freshRuntime = v8Host.createV8Runtime()) {
+                        stopWatch.resume();
+                        final long startTime = System.nanoTime();
+                        moduleLoader.importGraph(freshRuntime);
+                        final long elapsedNanos = System.nanoTime() - startTime;
+                        latencyRecorder.record(elapsedNanos);
+                        importNanos += elapsedNanos;
+                        stopWatch.suspend();
+                        assertEquals(expectedSum, freshRuntime.getGlobalObject().getLong("moduleSum"));
+                    }
+                    stopWatch.resume();
+                }
+                stopMeasurement(runtime);
+                logResult(createResult(runtime, "V8ModuleGraphImport")
+                        .addParam("resolver", resolverType.name())
+                        .addParam("fanOut", graphShape.getFanOut())
+                        .addParam("depth", graphShape.getDepth())
+                        .addParam("modules", moduleCount)
+                        .addMetric("nanosPerModule", importNanos / loopCount / moduleCount)
+                        .addMetric("resolverNanosPerModule", moduleLoader.getResolverNanos() / loopCount / moduleCount)
+                        .addMetric("resolverRatio", (double) moduleLoader.getResolverNanos() / importNanos), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum ResolverType {
+        Uncached,
+        Cached
+    }
+
+    protected static final class CachedModule {
+        private final byte[] cachedData;
+        private final String source;
+
+        public CachedModule(String source, byte[] cachedData) {
+            this.cachedData = cachedData;
+            this.source = source;
+        }
+
+        public byte[] getCachedData() {
+            return cachedData;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+
+    protected static final class GraphShape {
+        private final int depth;
+        private final int fanOut;
+
+        public GraphShape(int fanOut, int depth) {
+            this.depth = depth;
+            this.fanOut = fanOut;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getFanOut() {
+            return fanOut;
+        }
+
+        public int getModuleCount() {
+            int moduleCount = 0;
+            int levelCount = 1;
+            for (int level = 0; level <= depth; level++) {
+                moduleCount += levelCount;
+                levelCount *= fanOut;
+            }
+            return moduleCount;
+        }
+
+        @Override
+        public String toString() {
+            return fanOut + "x" + depth;
+        }
+    }
+
+    /**
+     * The module loader compiles the root module and resolves the imports.
+     * In cached mode the source and the code cache are shared across runtimes,
+     * so that only the first runtime touches the disk and compiles without code cache.
+     */
+    protected static final class ModuleLoader implements IV8ModuleResolver {
+        private final Map<String, CachedModule> cachedModuleMap;
+        private final Path graphPath;
+        private final ResolverType resolverType;
+        private long resolverNanos;
+
+        public ModuleLoader(Path graphPath, ResolverType resolverType) {
+            cachedModuleMap = new ConcurrentHashMap<>();
+            this.graphPath = graphPath;
+            this.resolverType = resolverType;
+            resolverNanos = 0;
+        }
+
+        public V8Module compile(V8Runtime v8Runtime, String resourceName) throws JavetException {
+            if (resolverType == ResolverType.Cached) {
+                CachedModule cachedModule = cachedModuleMap.get(resourceName);
+                if (cachedModule != null) {
+                    return v8Runtime.getExecutor(cachedModule.getSource(), cachedModule.getCachedData())
+                            .setResourceName(resourceName).compileV8Module();
+                }
+            }
+            final String source;
+            try {
+                source = Files.readString(graphPath.resolve(resourceName), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            V8Module v8Module = v8Runtime.getExecutor(source).setResourceName(resourceName).compileV8Module();
+            if (resolverType == ResolverType.Cached) {
+                cachedModuleMap.put(resourceName, new CachedModule(source, v8Module.getCachedData()));
+            }
+            return v8Module;
+        }
+
+        public long getResolverNanos() {
+            return resolverNanos;
+        }
+
+        public void importGraph(V8Runtime v8Runtime) throws JavetException {
+            v8Runtime.setV8ModuleResolver(this);
+            try (V8Module v8Module = compile(v8Runtime, ROOT_RESOURCE_NAME)) {
+                v8Module.instantiate();
+                v8Module.evaluate().close();
+            } finally {
+                v8Runtime.setV8ModuleResolver(null);
+            }
+        }
+
+        public void resetResolverNanos() {
+            resolverNanos = 0;
+        }
+
+        @Override
+        public IV8Module resolve(V8Runtime v8Runtime, String resourceName, IV8Module v8ModuleReferrer)
+                throws JavetException {
+            final long startTime = System.nanoTime();
+            try {
+                return compile(v8Runtime, resourceName);
+            } finally {
+                resolverNanos += System.nanoTime() - startTime;
+            }
+        }
+    }
+}
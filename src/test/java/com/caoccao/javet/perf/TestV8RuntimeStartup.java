@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.enums.JSRuntimeType;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.engine.IJavetEngine;
+import com.caoccao.javet.interop.engine.JavetEngineConfig;
+import com.caoccao.javet.interop.engine.JavetEnginePool;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The runtime startup tests measure how long it takes to get a usable runtime:
+ * the cold start in a fresh JVM, the warm creation from an initialized V8 host,
+ * the context and isolate resets, a pre-warmed engine pool and the memory per runtime.
+ * <p>
+ * The cold start count can be overridden by system property javet.perf.cold.start.count.
+ * Javet 3.0.1 does not expose V8 startup snapshots, so there is no snapshot path yet.
+ */
+public class TestV8RuntimeStartup extends BaseTestJavet {
+    protected static final int COLD_START_COUNT = Integer.getInteger("javet.perf.cold.start.count", 5);
+    protected static final long COLD_START_TIMEOUT_SECONDS = 60L;
+    protected static final int POOL_SIZE = 4;
+    protected static final int RUNTIME_COUNT = 16;
+
+    protected long[] runColdStartProbe(JSRuntimeType jsRuntimeType) throws Exception {
+        final String javaPath = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(
+                javaPath, "-cp", System.getProperty("java.class.path"),
+                ColdStartProbe.class.getName(), jsRuntimeType.name())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        String probeLine = null;
+        try (BufferedReader bufferedReader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                if (line.startsWith(ColdStartProbe.PREFIX)) {
+                    probeLine = line;
+                }
+            }
+        }
+        assertTrue(process.waitFor(COLD_START_TIMEOUT_SECONDS, TimeUnit.SECONDS), "Cold start probe timed out.");
+        assertEquals(0, process.exitValue(), "Cold start probe failed.");
+        assertNotNull(probeLine, "Cold start probe printed nothing.");
+        final String[] tokens = probeLine.substring(ColdStartProbe.PREFIX.length()).split(" ");
+        final long[] values = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            values[i] = Long.parseLong(tokens[i]);
+        }
+        return values;
+    }
+
+    @Test
+    public void testColdStart() {
+        runtimes.forEach(runtime -> {
+            try {
+                final JSRuntimeType jsRuntimeType = runtime.getJSRuntimeType();
+                latencyRecorder.reset();
+                long totalCreateNanos = 0;
+                long totalFirstCallNanos = 0;
+                long totalRssBytes = 0;
+                for (int i = 0; i < COLD_START_COUNT; i++) {
+                    final long[] values = runColdStartProbe(jsRuntimeType);
+                    latencyRecorder.record(values[0]);
+                    totalCreateNanos += values[0];
+                    totalFirstCallNanos += values[1];
+                    if (values[2] > 0 && values[3] > 0) {
+                        totalRssBytes += values[3] - values[2];
+                    }
+                }
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8RuntimeColdStart")
+                        .setThroughput(COLD_START_COUNT, totalCreateNanos)
+                        .setLatency(latencyRecorder)
+                        .addMetric("firstCallNanos", totalFirstCallNanos / COLD_START_COUNT)
+                        .addMetric("rssBytesPerRuntime", totalRssBytes / COLD_START_COUNT);
+                ResultSink.getInstance().write(benchmarkResult);
+                logger.info(
+                        "[{}] V8RuntimeColdStart: {} fresh JVMs, create p50 {}ns, max {}ns, first call {}ns, RSS {} bytes.",
+                        StringUtils.leftPad(jsRuntimeType.getName(), 4), COLD_START_COUNT,
+                        latencyRecorder.getValueAtPercentile(50D), latencyRecorder.getMax(),
+                        totalFirstCallNanos / COLD_START_COUNT, totalRssBytes / COLD_START_COUNT);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryPerRuntime() {
+        runtimes.forEach(runtime -> {
+            try {
+                final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+                List<V8Runtime> createdRuntimes = new ArrayList<>();
+                System.gc();
+                final long rssBefore = ProcessMemory.getResidentSetSize();
+                try {
+                    for (int i = 0; i < RUNTIME_COUNT; i++) {
+                        V8Runtime createdRuntime = v8Host.createV8Runtime();
+                        createdRuntimes.add(createdRuntime);
+                        createdRuntime.getExecutor("1 + 1").executeInteger();
+                    }
+                    final long rssAfter = ProcessMemory.getResidentSetSize();
+                    long totalHeapSize = 0;
+                    long usedHeapSize = 0;
+                    for (V8Runtime createdRuntime : createdRuntimes) {
+                        V8HeapStatistics v8HeapStatistics = createdRuntime.getV8HeapStatistics();
+                        totalHeapSize += v8HeapStatistics.getTotalHeapSize();
+                        usedHeapSize += v8HeapStatistics.getUsedHeapSize();
+                    }
+                    final long rssBytesPerRuntime = rssBefore > 0 && rssAfter > 0
+                            ? (rssAfter - rssBefore) / RUNTIME_COUNT
+                            : -1L;
+                    ResultSink.getInstance().write(createResult(runtime, "V8RuntimeMemory")
+                            .addParam("runtimes", RUNTIME_COUNT)
+                            .addMetric("rssBytesPerRuntime", rssBytesPerRuntime)
+                            .addMetric("totalHeapBytesPerRuntime", totalHeapSize / RUNTIME_COUNT)
+                            .addMetric("usedHeapBytesPerRuntime", usedHeapSize / RUNTIME_COUNT));
+                    logger.info(
+                            "[{}] V8RuntimeMemory: {} runtimes, RSS {} bytes, V8 total heap {} bytes, used heap {} bytes per runtime.",
+                            StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), RUNTIME_COUNT,
+                            rssBytesPerRuntime, totalHeapSize / RUNTIME_COUNT, usedHeapSize / RUNTIME_COUNT);
+                } finally {
+                    for (V8Runtime createdRuntime : createdRuntimes) {
+                        createdRuntime.close();
+                    }
+                }
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testPooledFirstCall() {
+        final long loopCount = 10000L;
+        runtimes.forEach(runtime -> {
+            JavetEngineConfig javetEngineConfig = new JavetEngineConfig();
+            javetEngineConfig.setJSRuntimeType(runtime.getJSRuntimeType());
+            javetEngineConfig.setPoolMinSize(POOL_SIZE);
+            javetEngineConfig.setPoolMaxSize(POOL_SIZE);
+            try (JavetEnginePool<V8Runtime> javetEnginePool = new JavetEnginePool<>(javetEngineConfig)) {
+                // Pre-warm the pool so that every engine has been created and used once.
+                List<IJavetEngine<V8Runtime>> javetEngines = new ArrayList<>();
+                for (int i = 0; i < POOL_SIZE; i++) {
+                    IJavetEngine<V8Runtime> javetEngine = javetEnginePool.getEngine();
+                    javetEngine.getV8Runtime().getExecutor("1 + 1").executeInteger();
+                    javetEngines.add(javetEngine);
+                }
+                for (IJavetEngine<V8Runtime> javetEngine : javetEngines) {
+                    javetEngine.close();
+                }
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (IJavetEngine<V8Runtime> javetEngine = javetEnginePool.getEngine()) {
+                        javetEngine.getV8Runtime().getExecutor("1 + 1").executeInteger();
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logResult(createResult(runtime, "V8RuntimePooledFirstCall").addParam("pool", POOL_SIZE), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testReset() {
+        runtimes.forEach(runtime -> {
+            for (ResetMode resetMode : ResetMode.values()) {
+                final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+                V8Runtime resetRuntime = null;
+                try {
+                    resetRuntime = v8Host.createV8Runtime();
+                    final long loopCount = resetMode.getLoopCount();
+                    // The heap statistics are taken from the runtime under test.
+                    long time = startMeasurement(resetRuntime);
+                    for (long i = 0; i < loopCount; i++) {
+                        resetRuntime = resetMode.reset(v8Host, resetRuntime);
+                        resetRuntime.getExecutor("1 + 1").executeInteger();
+                        time = recordLatency(time);
+                    }
+                    stopMeasurement(resetRuntime);
+                    if (resetMode == ResetMode.Recreate) {
+                        // The heap statistics before and after belong to different runtimes.
+                        allocationRecorder.discardV8HeapStatistics();
+                    }
+                    logResult(createResult(runtime, "V8RuntimeReset").addParam("mode", resetMode.name()), loopCount);
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    if (resetRuntime != null) {
+                        try {
+                            resetRuntime.close();
+                        } catch (Throwable t) {
+                            fail(t);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testWarmCreation() {
+        final long loopCount = 200L;
+        runtimes.forEach(runtime -> {
+            try {
+                final V8Host v8Host = V8Host.getInstance(runtime.getJSRuntimeType());
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8Runtime createdRuntime = v8Host.createV8Runtime()) {
+                        createdRuntime.getExecutor("1 + 1").executeInteger();
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                // The created runtimes are closed, so the heap statistics of the idle runtime are meaningless.
+                allocationRecorder.discardV8HeapStatistics();
+                logResult(runtime, "V8RuntimeWarmCreation", loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum ResetMode {
+        Context(1000L),
+        Isolate(200L),
+        Recreate(200L);
+
+        private final long loopCount;
+
+        ResetMode(long loopCount) {
+            this.loopCount = loopCount;
+        }
+
+        public long getLoopCount() {
+            return loopCount;
+        }
+
+        public V8Runtime reset(V8Host v8Host, V8Runtime v8Runtime) throws Exception {
+            switch (this) {
+                case Context:
+                    v8Runtime.resetContext();
+                    return v8Runtime;
+                case Isolate:
+                    v8Runtime.resetIsolate();
+                    return v8Runtime;
+                default:
+                    v8Runtime.close();
+                    return v8Host.createV8Runtime();
+            }
+        }
+    }
+}
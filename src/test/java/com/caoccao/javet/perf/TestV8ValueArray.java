@@ -18,8 +18,9 @@ package com.caoccao.javet.perf;
 
 import com.caoccao.javet.values.primitive.V8ValueInteger;
 import com.caoccao.javet.values.reference.V8ValueArray;
-import org.apache.commons.lang3.StringUtils;
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.concurrent.atomic.LongAdder;
 
@@ -27,46 +28,51 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestV8ValueArray extends BaseTestJavet {
-    @Test
-    public void testForEachWithUniConsumer() {
-        final int arrayLength = 1000;
-        final long loopCount = 1000L;
+    protected static final ComplexityAnalyzer COMPLEXITY_ANALYZER = new ComplexityAnalyzer();
+
+    @AfterAll
+    public static void afterAll() {
+        COMPLEXITY_ANALYZER.analyze();
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithUniConsumer(int arrayLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(arrayLength);
         runtimes.forEach(runtime -> {
             try (V8ValueArray v8ValueArray = runtime.getExecutor(
                     "Array.from({ length: " + arrayLength + " }, (_, i) => i)").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueArray.forEach((V8ValueInteger v8Value) -> v8Value.getValue());
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueArrayForEachWithUniConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueArrayForEachWithUniConsumer")
+                        .addParam("size", arrayLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), arrayLength);
             } catch (Throwable t) {
                 fail(t);
             }
         });
     }
 
-    @Test
-    public void testForEachWithUniIndexedConsumer() {
-        final int arrayLength = 1000;
-        final long loopCount = 1000L;
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithUniIndexedConsumer(int arrayLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(arrayLength);
         runtimes.forEach(runtime -> {
             try (V8ValueArray v8ValueArray = runtime.getExecutor(
                     "Array.from({ length: " + arrayLength + " }, (_, i) => i)").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueArray.forEach((int index, V8ValueInteger value) -> value.getValue());
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueArrayForEachWithUniIndexedConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueArrayForEachWithUniIndexedConsumer")
+                        .addParam("size", arrayLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), arrayLength);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -19,7 +19,6 @@ package com.caoccao.javet.perf;
 import com.caoccao.javet.values.V8Value;
 import com.caoccao.javet.values.primitive.V8ValueInteger;
 import com.caoccao.javet.values.reference.V8ValueFunction;
-import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -28,6 +27,53 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestV8ValueFunction extends BaseTestJavet {
+    @Test
+    public void testCallIntegerWith20Arguments() {
+        final int argumentCount = 20;
+        final long loopCount = 400_000L;
+        V8Value[] arguments = new V8Value[argumentCount];
+        runtimes.forEach(runtime -> {
+            try (V8ValueFunction v8ValueFunction = runtime.createV8ValueFunction(
+                    "(function() { return arguments.length; })")) {
+                Arrays.fill(arguments, runtime.createV8ValueInteger(1));
+                int count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    count += v8ValueFunction.callInteger(null, (Object[]) arguments);
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(argumentCount * loopCount, count, "Count should match.");
+                logResult(runtime, "V8ValueFunctionCallIntegerWith20Arguments", loopCount);
+                assertAllocationPerOperation(loopCount, argumentCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @Test
+    public void testCallIntegerWithoutArguments() {
+        final long loopCount = 1_000_000L;
+        runtimes.forEach(runtime -> {
+            try (V8ValueFunction v8ValueFunction = runtime.createV8ValueFunction(
+                    "(function() { return 1; })")) {
+                int count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    count += v8ValueFunction.callInteger(null, (Object[]) EMPTY_ARGUMENTS);
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(loopCount, count, "Count should match.");
+                logResult(runtime, "V8ValueFunctionCallIntegerWithoutArguments", loopCount);
+                assertAllocationPerOperation(loopCount, 0);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
     @Test
     public void testCallWith20Arguments() {
         final int argumentCount = 20;
@@ -35,21 +81,18 @@ public class TestV8ValueFunction extends BaseTestJavet {
         V8Value[] arguments = new V8Value[argumentCount];
         runtimes.forEach(runtime -> {
             try (V8ValueFunction v8ValueFunction = runtime.createV8ValueFunction(
-                    "const a = function() { return arguments.length; }; a;")) {
+                    "(function() { return arguments.length; })")) {
                 Arrays.fill(arguments, runtime.createV8ValueInteger(1));
                 int count = 0;
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     V8ValueInteger v8ValueInteger = v8ValueFunction.call(null, arguments);
                     count += v8ValueInteger.getValue();
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
+                stopMeasurement(runtime);
                 assertEquals(argumentCount * loopCount, count, "Count should match.");
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueFunctionCallWith20Arguments: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                logResult(runtime, "V8ValueFunctionCallWith20Arguments", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -61,20 +104,17 @@ public class TestV8ValueFunction extends BaseTestJavet {
         final long loopCount = 1_000_000L;
         runtimes.forEach(runtime -> {
             try (V8ValueFunction v8ValueFunction = runtime.createV8ValueFunction(
-                    "const a = function() { return 1; }; a;")) {
+                    "(function() { return 1; })")) {
                 int count = 0;
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     V8ValueInteger v8ValueInteger = v8ValueFunction.call(null);
                     count += v8ValueInteger.getValue();
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
+                stopMeasurement(runtime);
                 assertEquals(loopCount, count, "Count should match.");
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueFunctionCallWithoutArguments: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                logResult(runtime, "V8ValueFunctionCallWithoutArguments", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
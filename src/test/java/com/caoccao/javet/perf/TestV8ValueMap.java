@@ -17,7 +17,6 @@
 package com.caoccao.javet.perf;
 
 import com.caoccao.javet.values.reference.V8ValueMap;
-import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.fail;
@@ -29,16 +28,13 @@ public class TestV8ValueMap extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueMap v8ValueMap = runtime.createV8ValueMap()) {
                 v8ValueMap.set("a", true);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueMap.getBoolean("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueMapGetBoolean: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueMapGetBoolean", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -51,16 +47,13 @@ public class TestV8ValueMap extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueMap v8ValueMap = runtime.createV8ValueMap()) {
                 v8ValueMap.set("a", 1.23D);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueMap.getDouble("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueMapGetDouble: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueMapGetDouble", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -73,16 +66,13 @@ public class TestV8ValueMap extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueMap v8ValueMap = runtime.createV8ValueMap()) {
                 v8ValueMap.set("a", 1000);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueMap.getInteger("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueMapGetInteger: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueMapGetInteger", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -95,16 +85,13 @@ public class TestV8ValueMap extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueMap v8ValueMap = runtime.createV8ValueMap()) {
                 v8ValueMap.set("a", 1000L);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueMap.getLong("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueMapGetLong: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueMapGetLong", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -117,16 +104,13 @@ public class TestV8ValueMap extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueMap v8ValueMap = runtime.createV8ValueMap()) {
                 v8ValueMap.set("a", "a");
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueMap.getString("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueMapGetString: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueMapGetString", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -19,8 +19,10 @@ package com.caoccao.javet.perf;
 import com.caoccao.javet.values.primitive.V8ValueInteger;
 import com.caoccao.javet.values.primitive.V8ValueString;
 import com.caoccao.javet.values.reference.V8ValueObject;
-import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.concurrent.atomic.LongAdder;
 
@@ -28,100 +30,103 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestV8ValueObject extends BaseTestJavet {
-    @Test
-    public void testForEachWithBiConsumer() {
-        final int keyLength = 1000;
-        final long loopCount = 1000L;
+    protected static final ComplexityAnalyzer COMPLEXITY_ANALYZER = new ComplexityAnalyzer();
+
+    @AfterAll
+    public static void afterAll() {
+        COMPLEXITY_ANALYZER.analyze();
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithBiConsumer(int keyLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(keyLength);
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.getExecutor(
-                    "const a = {};" +
+                    "(() => { const a = {};" +
                             "Array.from({ length: " + keyLength + " }, (_, i) => { a[' ' + i] = i; return i; });" +
-                            "a;").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                            "return a; })()").execute()) {
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.forEach((V8ValueString key, V8ValueInteger value) -> value.getValue());
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectForEachWithBiConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueObjectForEachWithBiConsumer")
+                        .addParam("size", keyLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), keyLength);
             } catch (Throwable t) {
                 fail(t);
             }
         });
     }
 
-    @Test
-    public void testForEachWithBiIndexedConsumer() {
-        final int keyLength = 1000;
-        final long loopCount = 1000L;
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithBiIndexedConsumer(int keyLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(keyLength);
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.getExecutor(
-                    "const a = {};" +
+                    "(() => { const a = {};" +
                             "Array.from({ length: " + keyLength + " }, (_, i) => { a[' ' + i] = i; return i; });" +
-                            "a;").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                            "return a; })()").execute()) {
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.forEach((int index, V8ValueString key, V8ValueInteger value) -> value.getValue());
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectForEachWithBiIndexedConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueObjectForEachWithBiIndexedConsumer")
+                        .addParam("size", keyLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), keyLength);
             } catch (Throwable t) {
                 fail(t);
             }
         });
     }
 
-    @Test
-    public void testForEachWithUniConsumer() {
-        final int keyLength = 1000;
-        final long loopCount = 1000L;
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithUniConsumer(int keyLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(keyLength);
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.getExecutor(
-                    "const a = {};" +
+                    "(() => { const a = {};" +
                             "Array.from({ length: " + keyLength + " }, (_, i) => { a[' ' + i] = i; return i; });" +
-                            "a;").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                            "return a; })()").execute()) {
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.forEach((V8ValueString key) -> key.getValue().substring(1));
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectForEachWithUniConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueObjectForEachWithUniConsumer")
+                        .addParam("size", keyLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), keyLength);
             } catch (Throwable t) {
                 fail(t);
             }
         });
     }
 
-    @Test
-    public void testForEachWithUniIndexedConsumer() {
-        final int keyLength = 1000;
-        final long loopCount = 1000L;
+    @ParameterizedTest
+    @MethodSource("com.caoccao.javet.perf.ComplexityAnalyzer#getSizes")
+    public void testForEachWithUniIndexedConsumer(int keyLength) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(keyLength);
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.getExecutor(
-                    "const a = {};" +
+                    "(() => { const a = {};" +
                             "Array.from({ length: " + keyLength + " }, (_, i) => { a[' ' + i] = i; return i; });" +
-                            "a;").execute()) {
-                stopWatch.reset();
-                stopWatch.start();
+                            "return a; })()").execute()) {
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.forEach((int index, V8ValueString key) -> key.getValue().substring(1));
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectForEachWithUniIndexedConsumer: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                BenchmarkResult benchmarkResult = createResult(runtime, "V8ValueObjectForEachWithUniIndexedConsumer")
+                        .addParam("size", keyLength);
+                COMPLEXITY_ANALYZER.add(logResult(benchmarkResult, loopCount), keyLength);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -134,16 +139,13 @@ public class TestV8ValueObject extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.set("a", true);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.getBoolean("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectGetBoolean: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueObjectGetBoolean", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -156,16 +158,13 @@ public class TestV8ValueObject extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.set("a", 1.23D);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.getDouble("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectGetDouble: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueObjectGetDouble", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -178,16 +177,13 @@ public class TestV8ValueObject extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.set("a", 1000);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.getInteger("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectGetInteger: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueObjectGetInteger", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -200,16 +196,13 @@ public class TestV8ValueObject extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.set("a", 1000L);
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.getLong("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectGetLong: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueObjectGetLong", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -222,16 +215,13 @@ public class TestV8ValueObject extends BaseTestJavet {
         runtimes.forEach(runtime -> {
             try (V8ValueObject v8ValueObject = runtime.createV8ValueObject()) {
                 v8ValueObject.set("a", "a");
-                stopWatch.reset();
-                stopWatch.start();
+                long time = startMeasurement(runtime);
                 for (long i = 0; i < loopCount; i++) {
                     v8ValueObject.getString("a");
+                    time = recordLatency(time);
                 }
-                stopWatch.stop();
-                final long tps = loopCount * 1000L / stopWatch.getTime();
-                logger.info(
-                        "[{}] V8ValueObjectGetString: {} calls in {}ms. TPS is {}.",
-                        StringUtils.leftPad(runtime.getJSRuntimeType().getName(), 4), loopCount, stopWatch.getTime(), tps);
+                stopMeasurement(runtime);
+                logResult(runtime, "V8ValueObjectGetString", loopCount);
             } catch (Throwable t) {
                 fail(t);
             }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValuePromise;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The promise tests measure the async paths across the Java boundary:
+ * resolving promises created in Java, awaiting JS async functions from Java,
+ * draining promise reactions and driving the Node event loop with timers and setImmediate.
+ * In single mode every operation is awaited by its own, in batched mode 100 operations share one await.
+ * The latency is the average per await.
+ */
+public class TestV8ValuePromise extends BaseTestJavet {
+    protected static final long OPERATION_COUNT = 100_000L;
+
+    protected static Stream<Arguments> getEventLoopArguments() {
+        return Stream.of(EventSource.values()).flatMap(eventSource ->
+                IntStream.of(1, 100).mapToObj(batchSize -> Arguments.of(eventSource, batchSize)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100})
+    public void testAwaitAsyncFunction(int batchSize) {
+        final long batchCount = OPERATION_COUNT / batchSize;
+        final long loopCount = batchCount * batchSize;
+        final V8ValuePromise[] v8ValuePromises = new V8ValuePromise[batchSize];
+        runtimes.forEach(runtime -> {
+            try (V8ValueFunction v8ValueFunction = runtime.getExecutor(
+                    "async (i) => { await null; return i + 1; }").execute()) {
+                long count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    for (int j = 0; j < batchSize; j++) {
+                        v8ValuePromises[j] = v8ValueFunction.call(null, j);
+                    }
+                    for (int j = 0; j < batchSize; j++) {
+                        try (V8ValuePromise v8ValuePromise = v8ValuePromises[j]) {
+                            awaitPromise(runtime, v8ValuePromise);
+                            V8ValueInteger v8ValueInteger = v8ValuePromise.getResult();
+                            count += v8ValueInteger.getValue();
+                        }
+                    }
+                    time = recordLatency(time, batchSize);
+                }
+                stopMeasurement(runtime);
+                assertEquals(batchCount * batchSize * (batchSize + 1L) / 2L, count, "Count should match.");
+                logResult(createResult(runtime, "V8ValuePromiseAwaitAsyncFunction")
+                        .addParam("batch", batchSize), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getEventLoopArguments")
+    public void testNodeEventLoop(EventSource eventSource, int batchSize) {
+        final long batchCount = Math.max(1L, eventSource.getOperationCount() / batchSize);
+        final long loopCount = batchCount * batchSize;
+        try (V8ValueFunction v8ValueFunction = nodeRuntime.getExecutor(
+                "(n) => new Promise(resolve => { let c = 0; "
+                        + "const tick = () => { if (++c === n) { resolve(c); } else { "
+                        + eventSource.getScript() + " } }; " + eventSource.getScript() + " })").execute()) {
+            long count = 0;
+            long time = startMeasurement(nodeRuntime);
+            for (long i = 0; i < batchCount; i++) {
+                try (V8ValuePromise v8ValuePromise = v8ValueFunction.call(null, batchSize)) {
+                    awaitPromise(nodeRuntime, v8ValuePromise);
+                    V8ValueInteger v8ValueInteger = v8ValuePromise.getResult();
+                    count += v8ValueInteger.getValue();
+                }
+                time = recordLatency(time, batchSize);
+            }
+            stopMeasurement(nodeRuntime);
+            assertEquals(loopCount, count, "Count should match.");
+            logResult(createResult(nodeRuntime, "V8ValuePromiseNodeEventLoop")
+                    .addParam("source", eventSource.name())
+                    .addParam("batch", batchSize), loopCount);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100})
+    public void testPromiseReactions(int batchSize) {
+        final long batchCount = OPERATION_COUNT / batchSize;
+        final long loopCount = batchCount * batchSize;
+        runtimes.forEach(runtime -> {
+            try (V8ValueFunction v8ValueFunction = runtime.getExecutor(
+                    "(n) => { let p = Promise.resolve(0); "
+                            + "for (let i = 0; i < n; i++) { p = p.then(c => c + 1); } return p; }").execute()) {
+                long count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    try (V8ValuePromise v8ValuePromise = v8ValueFunction.call(null, batchSize)) {
+                        awaitPromise(runtime, v8ValuePromise);
+                        V8ValueInteger v8ValueInteger = v8ValuePromise.getResult();
+                        count += v8ValueInteger.getValue();
+                    }
+                    time = recordLatency(time, batchSize);
+                }
+                stopMeasurement(runtime);
+                assertEquals(loopCount, count, "Count should match.");
+                logResult(createResult(runtime, "V8ValuePromiseReactions")
+                        .addParam("batch", batchSize), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100})
+    public void testResolveFromJava(int batchSize) {
+        final long batchCount = OPERATION_COUNT / batchSize;
+        final long loopCount = batchCount * batchSize;
+        final V8ValuePromise[] resolvers = new V8ValuePromise[batchSize];
+        final V8ValuePromise[] v8ValuePromises = new V8ValuePromise[batchSize];
+        runtimes.forEach(runtime -> {
+            try {
+                long count = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < batchCount; i++) {
+                    for (int j = 0; j < batchSize; j++) {
+                        resolvers[j] = runtime.createV8ValuePromise();
+                        v8ValuePromises[j] = resolvers[j].getPromise();
+                        resolvers[j].resolve(j + 1);
+                    }
+                    for (int j = 0; j < batchSize; j++) {
+                        try (V8ValuePromise resolver = resolvers[j];
+                             V8ValuePromise v8ValuePromise = v8ValuePromises[j]) {
+                            awaitPromise(runtime, v8ValuePromise);
+                            V8ValueInteger v8ValueInteger = v8ValuePromise.getResult();
+                            count += v8ValueInteger.getValue();
+                        }
+                    }
+                    time = recordLatency(time, batchSize);
+                }
+                stopMeasurement(runtime);
+                assertEquals(batchCount * batchSize * (batchSize + 1L) / 2L, count, "Count should match.");
+                logResult(createResult(runtime, "V8ValuePromiseResolveFromJava")
+                        .addParam("batch", batchSize), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum EventSource {
+        SetImmediate("setImmediate(tick);", 10_000L),
+        // Node clamps the timeout to 1ms.
+        SetTimeout("setTimeout(tick, 0);", 1_000L);
+
+        private final long operationCount;
+        private final String script;
+
+        EventSource(String script, long operationCount) {
+            this.operationCount = operationCount;
+            this.script = script;
+        }
+
+        public long getOperationCount() {
+            return operationCount;
+        }
+
+        public String getScript() {
+            return script;
+        }
+    }
+}
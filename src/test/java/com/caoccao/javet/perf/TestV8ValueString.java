@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.annotations.V8Function;
+import com.caoccao.javet.interfaces.IJavetAnonymous;
+import com.caoccao.javet.values.primitive.V8ValueString;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The string tests move strings from 1 byte to 10MB between Java and V8 in both directions.
+ * The strings are Latin-1, UTF-16 in the basic multilingual plane or UTF-16 with surrogate pairs.
+ * Every direction is measured through V8ValueString, the set/getString helpers
+ * and string-valued function or callback arguments.
+ * The size is the UTF-16 size for UTF-16 strings and 1 byte per char for Latin-1 strings.
+ */
+public class TestV8ValueString extends BaseTestJavet {
+    protected static final int[] STRING_SIZES = new int[]{1, 100, 10_000, 1_000_000, 10_000_000};
+
+    protected static Stream<Arguments> getArguments() {
+        return Stream.of(PathType.values()).flatMap(pathType ->
+                Stream.of(EncodingType.values()).flatMap(encodingType ->
+                        IntStream.of(STRING_SIZES).mapToObj(size -> Arguments.of(pathType, encodingType, size))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArguments")
+    public void testString(PathType pathType, EncodingType encodingType, int size) {
+        final String value = encodingType.createString(size);
+        final long loopCount = Math.max(10L, Math.min(100_000L, 200_000_000L / size));
+        final StringReceiver stringReceiver = new StringReceiver();
+        runtimes.forEach(runtime -> {
+            try (V8ValueObject v8ValueObject = runtime.createV8ValueObject();
+                 V8ValueFunction lengthFunction = runtime.getExecutor("(s) => s.length").execute();
+                 V8ValueFunction callbackFunction = runtime.getExecutor("(o) => o.receive(o.s)").execute()) {
+                v8ValueObject.set("s", value);
+                v8ValueObject.bind(stringReceiver);
+                stringReceiver.reset();
+                long length = 0;
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (pathType) {
+                        case V8ValueStringToV8:
+                            try (V8ValueString v8ValueString = runtime.createV8ValueString(value)) {
+                                v8ValueObject.set("s", v8ValueString);
+                            }
+                            length += value.length();
+                            break;
+                        case SetToV8:
+                            v8ValueObject.set("s", value);
+                            length += value.length();
+                            break;
+                        case ArgumentToV8:
+                            length += lengthFunction.callInteger(null, value);
+                            break;
+                        case V8ValueStringFromV8:
+                            try (V8ValueString v8ValueString = v8ValueObject.get("s")) {
+                                length += v8ValueString.getValue().length();
+                            }
+                            break;
+                        case GetStringFromV8:
+                            length += v8ValueObject.getString("s").length();
+                            break;
+                        default:
+                            callbackFunction.callVoid(null, v8ValueObject);
+                            length += value.length();
+                            break;
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(loopCount * value.length(), length, "Length should match.");
+                if (pathType == PathType.CallbackArgumentFromV8) {
+                    assertEquals(loopCount * value.length(), stringReceiver.getLength(), "Length should match.");
+                }
+                logResult(createResult(runtime, "V8ValueString")
+                        .addParam("path", pathType.name())
+                        .addParam("encoding", encodingType.name())
+                        .addParam("size", size)
+                        .setBytesPerOperation(encodingType.getByteCount(value)), loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum EncodingType {
+        Latin1,
+        Utf16,
+        Utf16SurrogatePairs;
+
+        public String createString(int size) {
+            final StringBuilder stringBuilder = new StringBuilder(size);
+            switch (this) {
+                case Latin1:
+                    for (int i = 0; i < size; i++) {
+                        stringBuilder.append((char) (i % 2 == 0 ? 'a' + i % 26 : 0xC0 + i % 32));
+                    }
+                    break;
+                case Utf16:
+                    for (int i = 0; i < Math.max(1, size / 2); i++) {
+                        stringBuilder.append((char) (0x4E00 + i % 1000));
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < Math.max(1, size / 4); i++) {
+                        stringBuilder.appendCodePoint(0x1F600 + i % 64);
+                    }
+                    break;
+            }
+            return stringBuilder.toString();
+        }
+
+        public long getByteCount(String value) {
+            return this == Latin1 ? value.length() : value.length() * 2L;
+        }
+    }
+
+    protected enum PathType {
+        V8ValueStringToV8,
+        SetToV8,
+        ArgumentToV8,
+        V8ValueStringFromV8,
+        GetStringFromV8,
+        CallbackArgumentFromV8
+    }
+
+    public static final class StringReceiver implements IJavetAnonymous {
+        private long length;
+
+        public StringReceiver() {
+            reset();
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        @V8Function
+        public void receive(String value) {
+            length += value.length();
+        }
+
+        public void reset() {
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.enums.V8ValueReferenceType;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueDouble;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueArray;
+import com.caoccao.javet.values.reference.V8ValueArrayBuffer;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueTypedArray;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The bulk transfer tests move numeric data between Java and V8 in 4 ways:
+ * zero-copy through the direct byte buffer of an array buffer,
+ * copy through a typed array, batch access to an array and per-element access to an array.
+ * Each way is measured in both directions and reports MB/s.
+ */
+public class TestV8ValueTypedArray extends BaseTestJavet {
+    protected static Stream<Arguments> getArrayArguments() {
+        return Stream.of(ElementType.Int32, ElementType.Float64).flatMap(elementType ->
+                ComplexityAnalyzer.getSizes().stream().map(size -> Arguments.of(elementType, size)));
+    }
+
+    protected static Stream<Arguments> getTypedArrayArguments() {
+        return Stream.of(ElementType.values()).flatMap(elementType ->
+                ComplexityAnalyzer.getSizes().stream().map(size -> Arguments.of(elementType, size)));
+    }
+
+    protected void logTransferResult(
+            V8Runtime runtime, String name, ElementType elementType, int size, long loopCount) {
+        logResult(createResult(runtime, name)
+                .addParam("elementType", elementType.name())
+                .addParam("size", size)
+                .setBytesPerOperation((long) size * elementType.getByteCount()), loopCount);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArrayArguments")
+    public void testArrayBatch(ElementType elementType, int size) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(size);
+        final Object[] values = elementType.createBoxedValues(size);
+        final V8Value[] v8Values = new V8Value[size];
+        runtimes.forEach(runtime -> {
+            try {
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    try (V8ValueArray v8ValueArray = runtime.createV8ValueArray()) {
+                        v8ValueArray.push(values);
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueArrayBatchToV8", elementType, size, loopCount);
+                try (V8ValueArray v8ValueArray = runtime.createV8ValueArray()) {
+                    v8ValueArray.push(values);
+                    time = startMeasurement(runtime);
+                    for (long i = 0; i < loopCount; i++) {
+                        final int count = v8ValueArray.batchGet(v8Values, 0, size);
+                        elementType.readValues(v8Values, count);
+                        time = recordLatency(time);
+                    }
+                    stopMeasurement(runtime);
+                    logTransferResult(runtime, "V8ValueArrayBatchFromV8", elementType, size, loopCount);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArrayArguments")
+    public void testArrayPerElement(ElementType elementType, int size) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(size);
+        final Object[] values = elementType.createBoxedValues(size);
+        runtimes.forEach(runtime -> {
+            try (V8ValueArray v8ValueArray = runtime.createV8ValueArray()) {
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    for (int j = 0; j < size; j++) {
+                        v8ValueArray.set(j, values[j]);
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueArrayPerElementToV8", elementType, size, loopCount);
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    if (elementType == ElementType.Int32) {
+                        for (int j = 0; j < size; j++) {
+                            v8ValueArray.getInteger(j);
+                        }
+                    } else {
+                        for (int j = 0; j < size; j++) {
+                            v8ValueArray.getDouble(j);
+                        }
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueArrayPerElementFromV8", elementType, size, loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getTypedArrayArguments")
+    public void testTypedArrayCopy(ElementType elementType, int size) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(size);
+        final byte[] bytes = new byte[size];
+        final int[] integers = new int[size];
+        final double[] doubles = new double[size];
+        elementType.fillValues(bytes, integers, doubles);
+        runtimes.forEach(runtime -> {
+            try (V8ValueTypedArray v8ValueTypedArray = runtime.createV8ValueTypedArray(
+                    elementType.getV8ValueReferenceType(), size)) {
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (elementType) {
+                        case Int8:
+                            v8ValueTypedArray.fromBytes(bytes);
+                            break;
+                        case Int32:
+                            v8ValueTypedArray.fromIntegers(integers);
+                            break;
+                        default:
+                            v8ValueTypedArray.fromDoubles(doubles);
+                            break;
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueTypedArrayCopyToV8", elementType, size, loopCount);
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (elementType) {
+                        case Int8:
+                            v8ValueTypedArray.toBytes();
+                            break;
+                        case Int32:
+                            v8ValueTypedArray.toIntegers();
+                            break;
+                        default:
+                            v8ValueTypedArray.toDoubles();
+                            break;
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueTypedArrayCopyFromV8", elementType, size, loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getTypedArrayArguments")
+    public void testTypedArrayZeroCopy(ElementType elementType, int size) {
+        final long loopCount = ComplexityAnalyzer.getLoopCount(size);
+        final byte[] bytes = new byte[size];
+        final int[] integers = new int[size];
+        final double[] doubles = new double[size];
+        elementType.fillValues(bytes, integers, doubles);
+        runtimes.forEach(runtime -> {
+            try (V8ValueArrayBuffer v8ValueArrayBuffer = runtime.createV8ValueArrayBuffer(
+                    size * elementType.getByteCount());
+                 V8ValueFunction v8ValueFunction = runtime.createV8ValueFunction(
+                         "(b) => new " + elementType.getV8ValueReferenceType().name() + "(b)[" + (size - 1) + "]")) {
+                final ByteBuffer byteBuffer = v8ValueArrayBuffer.getByteBuffer().order(ByteOrder.nativeOrder());
+                final IntBuffer intBuffer = byteBuffer.asIntBuffer();
+                final DoubleBuffer doubleBuffer = byteBuffer.asDoubleBuffer();
+                long time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (elementType) {
+                        case Int8:
+                            byteBuffer.clear();
+                            byteBuffer.put(bytes);
+                            break;
+                        case Int32:
+                            intBuffer.clear();
+                            intBuffer.put(integers);
+                            break;
+                        default:
+                            doubleBuffer.clear();
+                            doubleBuffer.put(doubles);
+                            break;
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                assertEquals(elementType.getLastValue(size), v8ValueFunction.callDouble(null, v8ValueArrayBuffer).doubleValue(),
+                        "The last value should be visible in V8.");
+                logTransferResult(runtime, "V8ValueArrayBufferZeroCopyToV8", elementType, size, loopCount);
+                time = startMeasurement(runtime);
+                for (long i = 0; i < loopCount; i++) {
+                    switch (elementType) {
+                        case Int8:
+                            byteBuffer.clear();
+                            byteBuffer.get(bytes);
+                            break;
+                        case Int32:
+                            intBuffer.clear();
+                            intBuffer.get(integers);
+                            break;
+                        default:
+                            doubleBuffer.clear();
+                            doubleBuffer.get(doubles);
+                            break;
+                    }
+                    time = recordLatency(time);
+                }
+                stopMeasurement(runtime);
+                logTransferResult(runtime, "V8ValueArrayBufferZeroCopyFromV8", elementType, size, loopCount);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        });
+    }
+
+    protected enum ElementType {
+        Int8(1, V8ValueReferenceType.Int8Array),
+        Int32(4, V8ValueReferenceType.Int32Array),
+        Float64(8, V8ValueReferenceType.Float64Array);
+
+        private final int byteCount;
+        private final V8ValueReferenceType v8ValueReferenceType;
+
+        ElementType(int byteCount, V8ValueReferenceType v8ValueReferenceType) {
+            this.byteCount = byteCount;
+            this.v8ValueReferenceType = v8ValueReferenceType;
+        }
+
+        public Object[] createBoxedValues(int size) {
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = this == Float64 ? (Object) (i + 0.5D) : (Object) i;
+            }
+            return values;
+        }
+
+        public void fillValues(byte[] bytes, int[] integers, double[] doubles) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) i;
+                integers[i] = i;
+                doubles[i] = i + 0.5D;
+            }
+        }
+
+        public int getByteCount() {
+            return byteCount;
+        }
+
+        public double getLastValue(int size) {
+            switch (this) {
+                case Int8:
+                    return (byte) (size - 1);
+                case Int32:
+                    return size - 1;
+                default:
+                    return size - 0.5D;
+            }
+        }
+
+        public V8ValueReferenceType getV8ValueReferenceType() {
+            return v8ValueReferenceType;
+        }
+
+        public void readValues(V8Value[] v8Values, int count) {
+            if (this == Float64) {
+                for (int i = 0; i < count; i++) {
+                    ((V8ValueDouble) v8Values[i]).getValue();
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    ((V8ValueInteger) v8Values[i]).getValue();
+                }
+            }
+        }
+    }
+}
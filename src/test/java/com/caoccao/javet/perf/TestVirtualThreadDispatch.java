@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import com.caoccao.javet.annotations.V8Function;
+import com.caoccao.javet.enums.JSRuntimeType;
+import com.caoccao.javet.interfaces.IJavetAnonymous;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.caoccao.javet.values.reference.V8ValueObject;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The virtual thread dispatch tests serve a stream of logical requests from virtual threads
+ * which multiplex onto a small fixed set of runtimes through a blocking queue.
+ * The baseline is a platform thread pool with one thread per runtime.
+ * The runtime count defaults to 4 and can be overridden by system property javet.perf.runtimes.
+ * Virtual threads require Java 21+, otherwise the tests are skipped.
+ * Run with -Djdk.tracePinnedThreads=full to see where carrier threads are pinned by native calls.
+ */
+public class TestVirtualThreadDispatch extends BaseTestJavet {
+    protected static final int[] CONCURRENT_REQUEST_COUNTS = new int[]{1_000, 10_000, 100_000};
+    protected static final int OPERATIONS_PER_REQUEST = 10;
+    protected static final String PROPERTY_RUNTIMES = "javet.perf.runtimes";
+
+    protected static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    protected void runDispatch(String name, IDispatchWorkload workload) {
+        final int runtimeCount = Integer.getInteger(PROPERTY_RUNTIMES, 4);
+        ExecutorService probeExecutorService = createVirtualThreadExecutor();
+        assumeTrue(probeExecutorService != null, "Virtual threads require Java 21+.");
+        probeExecutorService.shutdown();
+        for (JSRuntimeType jsRuntimeType : new JSRuntimeType[]{JSRuntimeType.V8, JSRuntimeType.Node}) {
+            List<V8Runtime> v8Runtimes = new ArrayList<>();
+            List<IDispatchOperation> operations = new ArrayList<>();
+            try {
+                BlockingQueue<IDispatchOperation> operationQueue = new ArrayBlockingQueue<>(runtimeCount);
+                for (int i = 0; i < runtimeCount; i++) {
+                    V8Runtime v8Runtime = V8Host.getInstance(jsRuntimeType).createV8Runtime();
+                    v8Runtimes.add(v8Runtime);
+                    IDispatchOperation operation = workload.prepare(v8Runtime);
+                    operations.add(operation);
+                    operationQueue.add(operation);
+                }
+                for (DispatchMode dispatchMode : DispatchMode.values()) {
+                    for (int requestCount : CONCURRENT_REQUEST_COUNTS) {
+                        ExecutorService executorService = dispatchMode == DispatchMode.VirtualThread
+                                ? createVirtualThreadExecutor()
+                                : Executors.newFixedThreadPool(runtimeCount);
+                        try {
+                            runRequests(jsRuntimeType, name, dispatchMode, executorService, operationQueue, requestCount);
+                        } finally {
+                            executorService.shutdown();
+                            executorService.awaitTermination(1, TimeUnit.MINUTES);
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                for (IDispatchOperation operation : operations) {
+                    try {
+                        operation.close();
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+                for (V8Runtime v8Runtime : v8Runtimes) {
+                    try {
+                        v8Runtime.lowMemoryNotification();
+                        assertEquals(0, v8Runtime.getReferenceCount(),
+                                "Reference count should be 0 after test case is ended.");
+                        v8Runtime.close();
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void runRequests(
+            JSRuntimeType jsRuntimeType,
+            String name,
+            DispatchMode dispatchMode,
+            ExecutorService executorService,
+            BlockingQueue<IDispatchOperation> operationQueue,
+            int requestCount) throws Exception {
+        final long[] waitLatencies = new long[requestCount];
+        final long[] totalLatencies = new long[requestCount];
+        final CountDownLatch completionLatch = new CountDownLatch(requestCount);
+        final List<Future<?>> futures = new ArrayList<>(requestCount);
+        BenchmarkPhaseEvent measureEvent = new BenchmarkPhaseEvent(
+                testName, BenchmarkPhaseEvent.PHASE_MEASURE, jsRuntimeType.getName());
+        measureEvent.begin();
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < requestCount; i++) {
+            final int requestIndex = i;
+            final long submitTime = System.nanoTime();
+            futures.add(executorService.submit(() -> {
+                try {
+                    IDispatchOperation operation = operationQueue.take();
+                    try {
+                        waitLatencies[requestIndex] = System.nanoTime() - submitTime;
+                        for (int j = 0; j < OPERATIONS_PER_REQUEST; j++) {
+                            operation.run();
+                        }
+                    } finally {
+                        operationQueue.put(operation);
+                    }
+                    totalLatencies[requestIndex] = System.nanoTime() - submitTime;
+                    return null;
+                } finally {
+                    completionLatch.countDown();
+                }
+            }));
+        }
+        completionLatch.await();
+        final long elapsedNanos = System.nanoTime() - startTime;
+        measureEvent.end();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        LatencyRecorder waitLatencyRecorder = new LatencyRecorder();
+        LatencyRecorder totalLatencyRecorder = new LatencyRecorder();
+        for (int i = 0; i < requestCount; i++) {
+            waitLatencyRecorder.record(waitLatencies[i]);
+            totalLatencyRecorder.record(totalLatencies[i]);
+        }
+        BenchmarkResult benchmarkResult = new BenchmarkResult(name, jsRuntimeType.getName())
+                .addParam("mode", dispatchMode.name())
+                .addParam("requests", requestCount)
+                .setThroughput(requestCount, elapsedNanos)
+                .setLatency(totalLatencyRecorder)
+                .addMetric("queueWaitP99Nanos", waitLatencyRecorder.getValueAtPercentile(99D));
+        measureEvent.setBenchmark(benchmarkResult.getName() + " " + benchmarkResult.getParams());
+        measureEvent.commit();
+        ResultSink.getInstance().write(benchmarkResult);
+        logger.info(
+                "[{}] Dispatch {} ({}, {} requests): request TPS is {}, " +
+                        "latency p50 {}us, p99 {}us, p99.9 {}us, max {}us, queue wait p99 {}us.",
+                StringUtils.leftPad(jsRuntimeType.getName(), 4), name, dispatchMode.getName(), requestCount,
+                (long) benchmarkResult.getTps(),
+                totalLatencyRecorder.getValueAtPercentile(50D) / 1000L,
+                totalLatencyRecorder.getValueAtPercentile(99D) / 1000L,
+                totalLatencyRecorder.getValueAtPercentile(99.9D) / 1000L,
+                totalLatencyRecorder.getMax() / 1000L,
+                waitLatencyRecorder.getValueAtPercentile(99D) / 1000L);
+    }
+
+    @Test
+    public void testCallWithoutArguments() {
+        runDispatch("V8ValueFunctionCallWithoutArguments", v8Runtime -> {
+            V8ValueFunction v8ValueFunction = v8Runtime.createV8ValueFunction(
+                    "const a = function() { return 1; }; a;");
+            return new IDispatchOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueFunction.close();
+                }
+
+                @Override
+                public void run() throws Exception {
+                    V8ValueInteger v8ValueInteger = v8ValueFunction.call(null);
+                    v8ValueInteger.getValue();
+                }
+            };
+        });
+    }
+
+    @Test
+    public void testReceiveCallbackWithoutArguments() {
+        IJavetAnonymous anonymous = new IJavetAnonymous() {
+            @V8Function
+            public int test(V8Value... v8Values) {
+                return 1;
+            }
+        };
+        runDispatch("V8FunctionCallbackReceiveCallbackWithoutArguments", v8Runtime -> {
+            V8ValueObject v8ValueObject = v8Runtime.createV8ValueObject();
+            v8ValueObject.bind(anonymous);
+            return new IDispatchOperation() {
+                @Override
+                public void close() throws Exception {
+                    v8ValueObject.close();
+                }
+
+                @Override
+                public void run() throws Exception {
+                    V8ValueInteger v8ValueInteger = v8ValueObject.invoke("test");
+                    v8ValueInteger.getValue();
+                }
+            };
+        });
+    }
+
+    protected enum DispatchMode {
+        PlatformThread("platform thread per runtime"),
+        VirtualThread("virtual threads");
+
+        private final String name;
+
+        DispatchMode(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    protected interface IDispatchOperation extends AutoCloseable {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    protected interface IDispatchWorkload {
+        IDispatchOperation prepare(V8Runtime v8Runtime) throws Exception;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023. caoccao.com Sam Cao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caoccao.javet.perf;
+
+import java.util.Arrays;
+
+/**
+ * The throughput sampler splits a measured window into fixed time slices
+ * and records the TPS of each slice as one sample.
+ * The slice defaults to 100ms and can be overridden by system property javet.perf.sample.window.ms.
+ * It is not thread-safe and is designed to be reset and reused by one thread.
+ */
+public final class ThroughputSampler {
+    public static final String PROPERTY_SAMPLE_WINDOW_MS = "javet.perf.sample.window.ms";
+    private final long windowNanos;
+    private long operationCount;
+    private int sampleCount;
+    private double[] samples;
+    private long windowStartTime;
+
+    public ThroughputSampler() {
+        this(Long.getLong(PROPERTY_SAMPLE_WINDOW_MS, 100L) * 1_000_000L);
+    }
+
+    public ThroughputSampler(long windowNanos) {
+        this.windowNanos = Math.max(1L, windowNanos);
+        samples = new double[16];
+        reset(System.nanoTime());
+    }
+
+    public double[] getSamples() {
+        return Arrays.copyOf(samples, sampleCount);
+    }
+
+    public void record(long endTime) {
+        record(endTime, 1L);
+    }
+
+    public void record(long endTime, long operationCount) {
+        this.operationCount += operationCount;
+        final long elapsedNanos = endTime - windowStartTime;
+        if (elapsedNanos >= windowNanos) {
+            if (sampleCount == samples.length) {
+                samples = Arrays.copyOf(samples, sampleCount * 2);
+            }
+            samples[sampleCount++] = this.operationCount * 1_000_000_000D / elapsedNanos;
+            this.operationCount = 0;
+            windowStartTime = endTime;
+        }
+    }
+
+    public void reset(long startTime) {
+        operationCount = 0;
+        sampleCount = 0;
+        windowStartTime = startTime;
+    }
+}